@@ -0,0 +1,48 @@
+package com.distelli.graphql.apigen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the package visible phases of ApiGen.generate() so CodegenBenchmark
+ * measures the code the plugin runs. generate() interleaves the phases per
+ * type, here each phase is run over every type.
+ */
+public class ApiGenPhases {
+    private final ApiGen apiGen;
+
+    public ApiGenPhases(ApiGen apiGen) {
+        this.apiGen = apiGen;
+    }
+
+    public List<STModel> buildModels() {
+        Map<String, List<String>> unionsByMember = apiGen.getUnionsByMember();
+        List<TypeEntry> entries = apiGen.getGenerationEntries();
+        List<STModel> models = new ArrayList<>(entries.size());
+        for ( TypeEntry entry : entries ) {
+            models.add(apiGen.buildModel(entry, unionsByMember));
+        }
+        return models;
+    }
+
+    // Returns the content of each rendered file keyed by its path:
+    public Map<Path, String> render(List<STModel> models) {
+        Map<Path, String> files = new LinkedHashMap<>();
+        StringBuilder moduleBuilder = new StringBuilder();
+        for ( STModel model : models ) {
+            files.putAll(apiGen.render(model, moduleBuilder));
+        }
+        files.putAll(apiGen.renderModule(moduleBuilder));
+        return files;
+    }
+
+    public void write(Map<Path, String> files) throws IOException {
+        for ( Map.Entry<Path, String> file : files.entrySet() ) {
+            apiGen.writeFile(file.getKey(), file.getValue());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.posts.Author;
+import com.distelli.posts.Post;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.distelli.starwars.Character;
+import org.distelli.starwars.Episode;
+import org.distelli.starwars.Human;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The generated Builder and Impl classes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class BuilderBenchmark {
+    private Post post;
+    private Human human;
+    private Author author;
+
+    @Setup
+    public void setup() {
+        author = new Author.Unresolved(1);
+        post = buildPost();
+        human = buildHuman();
+    }
+
+    @Benchmark
+    public Post buildPost() {
+        return new Post.Builder()
+            .withId(1)
+            .withTitle("GraphQL Rocks")
+            .withVotes(10)
+            .withAuthor(author)
+            .build();
+    }
+
+    @Benchmark
+    public Post copyPost() {
+        return new Post.Builder(post)
+            .withVotes(11)
+            .build();
+    }
+
+    @Benchmark
+    public void getPost(Blackhole bh) {
+        bh.consume(post.getId());
+        bh.consume(post.getTitle());
+        bh.consume(post.getVotes());
+        bh.consume(post.getAuthor());
+    }
+
+    @Benchmark
+    public Human buildHuman() {
+        return new Human.Builder()
+            .withId("1000")
+            .withName("Luke Skywalker")
+            .withHomePlanet("Tatooine")
+            .withAppearsIn(Arrays.asList(Episode.NEWHOPE, Episode.EMPIRE, Episode.JEDI))
+            .withFriends(Arrays.<Character>asList(new Human.Unresolved("1002")))
+            .build();
+    }
+
+    @Benchmark
+    public Human copyHuman() {
+        return new Human.Builder(human)
+            .withName("Red Five")
+            .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.graphql.apigen.ApiGen;
+import com.distelli.graphql.apigen.ApiGenPhases;
+import com.distelli.graphql.apigen.STModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+/**
+ * How the code generator scales with the size of a SyntheticSchema. Each
+ * phase of ApiGen.generate() is measured separately (see ApiGenPhases):
+ *
+ *   addForGeneration: parsing the schema into ApiGen
+ *   model: STModel construction and validation of every type
+ *   render: rendering every template of every type (and the guice module)
+ *   write: writing the rendered files
+ *   generate: ApiGen.generate() end to end
+ *
+ * Each iteration is a single shot, use the PeakHeapProfiler (enabled by
+ * default in Main) to see the peak heap of each phase:
+ *
+ * <pre>
+ *   java -jar benchmarks.jar Codegen -p numTypes=20000 -p crossRefs=5
+ * </pre>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3)
+@Measurement(iterations=5)
+@Fork(value=1, jvmArgsAppend={"-Xmx4g"})
+public class CodegenBenchmark {
+    private static final String PACKAGE_NAME = "com.distelli.synthetic";
+
+    @State(Scope.Benchmark)
+    public static class Schema {
+        @Param({"100", "1000", "5000", "20000"})
+        public int numTypes;
+
+        @Param({"10"})
+        public int fieldsPerType;
+
+        @Param({"3"})
+        public int crossRefs;
+
+        @Param({"1"})
+        public int listDepth;
+
+        @Param({"true"})
+        public boolean idFields;
+
+        @Param({"false"})
+        public boolean typedDataFetchers;
+
+        public Path directory;
+        public Path schemaFile;
+        public STGroup stGroup;
+        public ApiGenPhases phases;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("apigen-codegen");
+            schemaFile = new SyntheticSchema(numTypes, fieldsPerType, crossRefs, listDepth, idFields)
+                .write(directory.resolve("synthetic.graphql"));
+            stGroup = new STGroupFile("graphql-apigen.stg");
+            phases = newPhases(directory.resolve("rendered"));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+
+        public ApiGen newApiGen(Path outputDirectory) throws IOException {
+            return new ApiGen.Builder()
+                .withOutputDirectory(outputDirectory)
+                .withSTGroup(stGroup)
+                .withGuiceModuleName(PACKAGE_NAME + ".SyntheticModule")
+                .withDefaultPackageName(PACKAGE_NAME)
+                .withTypedDataFetchers(typedDataFetchers)
+                .build();
+        }
+
+        public ApiGenPhases newPhases(Path outputDirectory) throws IOException {
+            ApiGen apiGen = newApiGen(outputDirectory);
+            apiGen.addForGeneration(schemaFile);
+            return new ApiGenPhases(apiGen);
+        }
+    }
+
+    // STModel lazily computes (and caches) fields, so rendering needs fresh models:
+    @State(Scope.Benchmark)
+    public static class Models {
+        public List<STModel> models;
+
+        @Setup(Level.Iteration)
+        public void setup(Schema schema) {
+            models = schema.phases.buildModels();
+        }
+    }
+
+    // Rendered once into files below a per-iteration output directory:
+    @State(Scope.Benchmark)
+    public static class Rendered {
+        public ApiGenPhases phases;
+        public Path directory;
+        public Map<Path, String> files;
+
+        @Setup(Level.Trial)
+        public void setup(Schema schema) throws IOException {
+            directory = schema.directory.resolve("written");
+            phases = schema.newPhases(directory);
+            files = phases.render(phases.buildModels());
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            if ( Files.exists(directory) ) delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Output {
+        public Path directory;
+
+        @Setup(Level.Iteration)
+        public void setup(Schema schema) throws IOException {
+            directory = Files.createTempDirectory(schema.directory, "out");
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Added {
+        public ApiGen apiGen;
+
+        @Setup(Level.Iteration)
+        public void setup(Schema schema, Output output) throws IOException {
+            apiGen = schema.newApiGen(output.directory);
+            apiGen.addForGeneration(schema.schemaFile);
+        }
+    }
+
+    @Benchmark
+    public ApiGen addForGeneration(Schema schema, Output output) throws IOException {
+        ApiGen apiGen = schema.newApiGen(output.directory);
+        apiGen.addForGeneration(schema.schemaFile);
+        return apiGen;
+    }
+
+    @Benchmark
+    public List<STModel> model(Schema schema) {
+        return schema.phases.buildModels();
+    }
+
+    @Benchmark
+    public Map<Path, String> render(Schema schema, Models models) {
+        return schema.phases.render(models.models);
+    }
+
+    @Benchmark
+    public void write(Rendered rendered) throws IOException {
+        rendered.phases.write(rendered.files);
+    }
+
+    @Benchmark
+    public void generate(Added added) throws IOException {
+        added.apiGen.generate();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try ( Stream<Path> paths = Files.walk(directory) ) {
+            paths.sorted(Comparator.reverseOrder())
+                .forEach((path) -> path.toFile().delete());
+        }
+    }
+}
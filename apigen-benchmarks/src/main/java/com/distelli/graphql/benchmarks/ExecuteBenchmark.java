@@ -0,0 +1,85 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.graphql.ResolverDataLoaders;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.execution.batched.BatchedExecutionStrategy;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full GraphQL.execute() of representative posts queries with each of
+ * the supported execution strategies:
+ *
+ *   batched: BatchedExecutionStrategy
+ *   async: the default AsyncExecutionStrategy
+ *   dataloader: AsyncExecutionStrategy with ResolverDataLoaders
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class ExecuteBenchmark {
+    @Param({"batched", "async", "dataloader"})
+    public String strategy;
+
+    @Param({"10", "1000"})
+    public int numPosts;
+
+    @Param({
+        "{posts{title votes}}",
+        "{posts{title author{firstName lastName}}}"
+    })
+    public String query;
+
+    private GraphQL graphQL;
+    private ResolverDataLoaders dataLoaders;
+
+    @Setup
+    public void setup() {
+        PostsFixture fixture = new PostsFixture(numPosts, 10);
+        switch ( strategy ) {
+        case "batched":
+            graphQL = GraphQL.newGraphQL(fixture.getSchema())
+                .queryExecutionStrategy(new BatchedExecutionStrategy())
+                .build();
+            break;
+        case "async":
+            graphQL = GraphQL.newGraphQL(fixture.getSchema()).build();
+            break;
+        case "dataloader":
+            graphQL = GraphQL.newGraphQL(fixture.getSchema()).build();
+            dataLoaders = new ResolverDataLoaders(fixture.getSchema());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown strategy="+strategy);
+        }
+        ExecutionResult result = execute();
+        if ( ! result.getErrors().isEmpty() ) {
+            throw new IllegalStateException("Query failed: "+result.getErrors());
+        }
+    }
+
+    @Benchmark
+    public ExecutionResult execute() {
+        ExecutionInput.Builder input = ExecutionInput.newExecutionInput()
+            .query(query);
+        if ( null != dataLoaders ) {
+            input.dataLoaderRegistry(dataLoaders.newDataLoaderRegistry());
+        }
+        return graphQL.execute(input);
+    }
+}
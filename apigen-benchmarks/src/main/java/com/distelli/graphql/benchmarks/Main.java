@@ -0,0 +1,38 @@
+package com.distelli.graphql.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the usual JMH command line options, adding
+ * the gc profiler (allocations per operation) and PeakHeapProfiler unless
+ * other profilers are requested:
+ *
+ * <pre>
+ *   java -jar apigen-benchmarks/target/benchmarks.jar [regexp] [jmh options]
+ * </pre>
+ */
+public class Main {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmdLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdLine);
+        if ( cmdLine.getProfilers().isEmpty() ) {
+            options.addProfiler(GCProfiler.class);
+            options.addProfiler(PeakHeapProfiler.class);
+        }
+        // Guice 4.0 defines classes reflectively, which Java 9+ denies:
+        if ( ! System.getProperty("java.specification.version").startsWith("1.") ) {
+            List<String> jvmArgs = new ArrayList<>(
+                cmdLine.getJvmArgsAppend().orElse(Collections.<String>emptyList()));
+            jvmArgs.add("--add-opens=java.base/java.lang=ALL-UNNAMED");
+            options.jvmArgsAppend(jvmArgs.toArray(new String[jvmArgs.size()]));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.graphql.MethodDataFetcher;
+import com.distelli.posts.MutatePosts;
+import com.distelli.posts.Post;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import graphql.schema.GraphQLObjectType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MethodDataFetcher for a plain getter and for a field with arguments
+ * decoded through the generated Args.fromMap().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class MethodDataFetcherBenchmark {
+    private MethodDataFetcher getterFetcher;
+    private DataFetchingEnvironment getterEnv;
+    private MethodDataFetcher argsFetcher;
+    private DataFetchingEnvironment argsEnv;
+
+    @Setup
+    public void setup() {
+        PostsFixture fixture = new PostsFixture(1, 1);
+        GraphQLObjectType postType = (GraphQLObjectType)fixture.getTypes().get("Post");
+        Post post = fixture.getPosts().get(0);
+        getterFetcher = new MethodDataFetcher("title", null, null);
+        getterEnv = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+            .source(post)
+            .parentType(postType)
+            .fieldType(postType.getFieldDefinition("title").getType())
+            .build();
+
+        GraphQLObjectType mutateType = (GraphQLObjectType)fixture.getTypes().get("MutatePosts");
+        argsFetcher = new MethodDataFetcher(
+            "createPost",
+            MutatePosts.CreatePostArgs.class,
+            fixture.getInjector().getInstance(MutatePosts.class));
+        Map<String, Object> input = new HashMap<>();
+        input.put("title", "New Post");
+        input.put("authorId", 1);
+        Map<String, Object> args = new HashMap<>();
+        args.put("post", input);
+        argsEnv = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+            .arguments(args)
+            .parentType(mutateType)
+            .fieldType(mutateType.getFieldDefinition("createPost").getType())
+            .build();
+    }
+
+    @Benchmark
+    public Object getter() throws Exception {
+        return getterFetcher.get(getterEnv);
+    }
+
+    @Benchmark
+    public Object args() throws Exception {
+        return argsFetcher.get(argsEnv);
+    }
+}
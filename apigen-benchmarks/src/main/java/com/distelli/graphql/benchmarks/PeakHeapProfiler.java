@@ -0,0 +1,61 @@
+package com.distelli.graphql.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the peak heap usage of each iteration as "peak.heap" (MB). This is
+ * the sum of the peak usage of every heap memory pool, which is an upper
+ * bound since the pools need not peak at the same time. The peak includes
+ * whatever the benchmark state retains during the iteration.
+ *
+ * <pre>
+ *   java -jar benchmarks.jar -prof com.distelli.graphql.benchmarks.PeakHeapProfiler
+ * </pre>
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+    @Override
+    public String getDescription() {
+        return "Peak heap usage per iteration";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        System.gc();
+        for ( MemoryPoolMXBean pool : getHeapPools() ) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+        long peak = 0;
+        for ( MemoryPoolMXBean pool : getHeapPools() ) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        List<Result> results = new ArrayList<>();
+        results.add(new ScalarResult("peak.heap", peak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+        return results;
+    }
+
+    private static List<MemoryPoolMXBean> getHeapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() ) {
+            if ( MemoryType.HEAP == pool.getType() && pool.isValid() ) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,100 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.posts.Author;
+import com.distelli.posts.MutatePosts;
+import com.distelli.posts.Post;
+import com.distelli.posts.PostsModule;
+import com.distelli.posts.QueryPosts;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The posts schema wired with in memory data: numPosts posts spread
+ * evenly over numAuthors authors.
+ */
+public class PostsFixture {
+    // Must be public for MethodDataFetcher:
+    public static class MutatePostsImpl implements MutatePosts {
+        @Override
+        public Post createPost(MutatePosts.CreatePostArgs args) {
+            return new Post.Builder()
+                .withTitle(args.getPost().getTitle())
+                .withAuthor(new Author.Unresolved(args.getPost().getAuthorId()))
+                .build();
+        }
+    }
+
+    private final List<Post> posts;
+    private final Map<Integer, Author> authors = new HashMap<>();
+    private final Injector injector;
+    private final GraphQLSchema schema;
+
+    public PostsFixture(int numPosts, int numAuthors) {
+        for ( int id=1; id <= numAuthors; id++ ) {
+            authors.put(id, new Author.Builder()
+                        .withId(id)
+                        .withFirstName("First"+id)
+                        .withLastName("Last"+id)
+                        .build());
+        }
+        posts = new ArrayList<>(numPosts);
+        for ( int id=1; id <= numPosts; id++ ) {
+            posts.add(new Post.Builder()
+                      .withId(id)
+                      .withTitle("Title "+id)
+                      .withVotes(id)
+                      .withAuthor(new Author.Unresolved(1 + id % numAuthors))
+                      .build());
+        }
+        injector = Guice.createInjector(new PostsModule(), new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.Resolver.class).toInstance(PostsFixture.this::resolveAuthors);
+                    bind(QueryPosts.class).toInstance(new QueryPosts.Builder()
+                                                      .withPosts(posts)
+                                                      .build());
+                    bind(MutatePosts.class).toInstance(new MutatePostsImpl());
+                }
+            });
+        Map<String, GraphQLType> types = getTypes();
+        schema = GraphQLSchema.newSchema()
+            .query((GraphQLObjectType)types.get("QueryPosts"))
+            .mutation((GraphQLObjectType)types.get("MutatePosts"))
+            .build(new HashSet<>(types.values()));
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public Injector getInjector() {
+        return injector;
+    }
+
+    public GraphQLSchema getSchema() {
+        return schema;
+    }
+
+    public Map<String, GraphQLType> getTypes() {
+        return injector.getInstance(Key.get(new TypeLiteral<Map<String, GraphQLType>>(){}));
+    }
+
+    private List<Author> resolveAuthors(List<Author> unresolved) {
+        List<Author> resolved = new ArrayList<>(unresolved.size());
+        for ( Author author : unresolved ) {
+            resolved.add(( null == author ) ? null : authors.get(author.getId()));
+        }
+        return resolved;
+    }
+}
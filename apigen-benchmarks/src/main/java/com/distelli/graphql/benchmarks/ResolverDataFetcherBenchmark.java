@@ -0,0 +1,77 @@
+package com.distelli.graphql.benchmarks;
+
+import com.distelli.graphql.ResolverDataFetcher;
+import com.distelli.posts.Author;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingEnvironmentImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ResolverDataFetcher over a batch of batchSize sources as passed by the
+ * BatchedExecutionStrategy. Each source fetches listDepth levels of nested
+ * lists, two elements wide, of unresolved authors, so the resolver is
+ * called with batchSize * 2^listDepth instances. The resolver returns its
+ * input, so only the fetcher's flatten, dedup and unflatten are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(1)
+public class ResolverDataFetcherBenchmark {
+    @Param({"0", "1", "2"})
+    public int listDepth;
+
+    @Param({"1", "100", "10000"})
+    public int batchSize;
+
+    private ResolverDataFetcher fetcher;
+    private DataFetchingEnvironment env;
+
+    @Setup
+    public void setup() {
+        List<Object> sources = new ArrayList<>(batchSize);
+        for ( int i=0; i < batchSize; i++ ) {
+            sources.add(nested(listDepth, i << listDepth));
+        }
+        // Each "source" is the value it fetches:
+        DataFetcher source = (env) -> env.getSource();
+        fetcher = new ResolverDataFetcher(
+            source,
+            (Author.Resolver)(list) -> list,
+            listDepth,
+            null,
+            Author::getId);
+        env = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+            .source(sources)
+            .build();
+    }
+
+    @Benchmark
+    public Object get() {
+        return ((CompletableFuture<?>)fetcher.get(env)).join();
+    }
+
+    private static Object nested(int depth, int id) {
+        if ( depth <= 0 ) return new Author.Unresolved(id);
+        int width = 1 << (depth - 1);
+        return Arrays.asList(nested(depth-1, id), nested(depth-1, id + width));
+    }
+}
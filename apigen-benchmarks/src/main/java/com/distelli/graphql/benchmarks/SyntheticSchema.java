@@ -0,0 +1,78 @@
+package com.distelli.graphql.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates a synthetic GraphQL schema document for measuring how the code
+ * generator scales. The schema contains numTypes object types named T0..Tn,
+ * each with:
+ *
+ *   id: ID!                  (if idFields, which makes the type resolvable)
+ *   f0..fN: scalar           (fieldsPerType scalar fields)
+ *   r0..rN: [[Tx]]           (crossRefs references to other types, wrapped
+ *                             in listDepth lists)
+ *
+ * Cross references are spread deterministically over the schema so the
+ * output only depends on the parameters.
+ */
+public class SyntheticSchema {
+    private static final String[] SCALARS = {
+        "String", "Int", "Float", "Boolean", "ID", "Long"
+    };
+    private final int numTypes;
+    private final int fieldsPerType;
+    private final int crossRefs;
+    private final int listDepth;
+    private final boolean idFields;
+
+    public SyntheticSchema(int numTypes, int fieldsPerType, int crossRefs, int listDepth, boolean idFields) {
+        if ( numTypes < 1 ) {
+            throw new IllegalArgumentException("Expected numTypes > 0, got "+numTypes);
+        }
+        this.numTypes = numTypes;
+        this.fieldsPerType = fieldsPerType;
+        this.crossRefs = crossRefs;
+        this.listDepth = listDepth;
+        this.idFields = idFields;
+    }
+
+    public int getNumTypes() {
+        return numTypes;
+    }
+
+    public Path write(Path path) throws IOException {
+        return Files.write(path, toString().getBytes(UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(numTypes * (32 + 16 * (fieldsPerType + crossRefs)));
+        for ( int type=0; type < numTypes; type++ ) {
+            sb.append("type T").append(type).append(" {\n");
+            if ( idFields ) {
+                sb.append("  id: ID!\n");
+            }
+            for ( int field=0; field < fieldsPerType; field++ ) {
+                sb.append("  f").append(field).append(": ")
+                    .append(SCALARS[(type + field) % SCALARS.length]).append("\n");
+            }
+            for ( int ref=0; ref < crossRefs; ref++ ) {
+                sb.append("  r").append(ref).append(": ");
+                for ( int i=0; i < listDepth; i++ ) sb.append('[');
+                sb.append('T').append(refType(type, ref));
+                for ( int i=0; i < listDepth; i++ ) sb.append(']');
+                sb.append("\n");
+            }
+            sb.append("}\n");
+        }
+        return sb.toString();
+    }
+
+    private int refType(int type, int ref) {
+        // A large odd stride so references are not all to neighbours:
+        return (int)((type + 1L + ref * 7919L) % numTypes);
+    }
+}
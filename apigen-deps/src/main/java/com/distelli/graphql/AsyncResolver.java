@@ -0,0 +1,22 @@
+package com.distelli.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncResolver<T> {
+    public CompletableFuture<List<T>> resolveAsync(List<T> unresolved);
+
+    /**
+     * Called by {@link ResolverDataFetcher} with the environment of the field
+     * being resolved, the generated resolvers override this to pass on the
+     * selected fields.
+     *
+     * @param env of the field being resolved.
+     *
+     * @return resolveAsync(unresolved) by default.
+     */
+    public default CompletableFuture<List<T>> resolveAsync(List<T> unresolved, DataFetchingEnvironment env) {
+        return resolveAsync(unresolved);
+    }
+}
@@ -0,0 +1,306 @@
+package com.distelli.graphql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The encoding used by the generated *.Codec classes. A type is written as a
+ * sequence of fields terminated by an END tag. Each field starts with a
+ * varint tag holding the field number (the 1 based position of the field in
+ * the schema) and the wire type:
+ *
+ *   VARINT: Int, Long, Short, Byte (zig-zag), Boolean, Char and enums.
+ *   FIXED64: Float (as an IEEE double).
+ *   BYTES: a varint length followed by the bytes of a String, ID,
+ *       BigInteger or BigDecimal.
+ *   NESTED: a 4 byte length followed by an object, input object or list.
+ *   NULL: a field explicitly set to null, with no value.
+ *
+ * Fields the reader does not know are skipped, so values written by a newer
+ * schema can be read by an older one (and vice versa) as long as new fields
+ * are only added at the end of a type. Enum values are written by position,
+ * unknown enum values are read as null.
+ *
+ * Lists are written as a varint count followed by each element, where a null
+ * element is a single 0 byte and any other element is a 1 byte followed by
+ * the value.
+ */
+public final class BinaryCodec {
+    private BinaryCodec() {}
+
+    public interface Writer<T> {
+        public void write(T value, ByteBuffer buf);
+    }
+
+    public interface Reader<T> {
+        public T read(ByteBuffer buf);
+    }
+
+    public static final int END = 0;
+
+    public static final int VARINT = 0;
+    public static final int FIXED64 = 1;
+    public static final int BYTES = 2;
+    public static final int NESTED = 3;
+    public static final int NULL = 4;
+
+    private static final int WIRE_TYPE_BITS = 3;
+    private static final int WIRE_TYPE_MASK = (1 << WIRE_TYPE_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * @return the encoded value, in an array which is grown until the value
+     *     fits.
+     */
+    public static <T> byte[] toByteArray(T value, Writer<? super T> writer) {
+        for ( int capacity = INITIAL_CAPACITY;; capacity *= 2 ) {
+            ByteBuffer buf = ByteBuffer.allocate(capacity);
+            try {
+                writer.write(value, buf);
+            } catch ( BufferOverflowException ex ) {
+                if ( capacity > Integer.MAX_VALUE / 2 ) throw ex;
+                continue;
+            }
+            byte[] result = new byte[buf.position()];
+            System.arraycopy(buf.array(), 0, result, 0, result.length);
+            return result;
+        }
+    }
+
+    public static <T> T fromByteArray(byte[] bytes, Reader<? extends T> reader) {
+        return reader.read(ByteBuffer.wrap(bytes));
+    }
+
+    public static void writeTag(ByteBuffer buf, int fieldNumber, int wireType) {
+        writeVarint(((long)fieldNumber << WIRE_TYPE_BITS) | wireType, buf);
+    }
+
+    public static void writeEnd(ByteBuffer buf) {
+        buf.put((byte)END);
+    }
+
+    /**
+     * @return the next tag, END if there are no more fields.
+     */
+    public static int readTag(ByteBuffer buf) {
+        return (int)readVarint(buf);
+    }
+
+    public static int getFieldNumber(int tag) {
+        return tag >>> WIRE_TYPE_BITS;
+    }
+
+    public static int getWireType(int tag) {
+        return tag & WIRE_TYPE_MASK;
+    }
+
+    /**
+     * Writes a nullable field, a null value is only written if present.
+     */
+    public static <T> void writeField(ByteBuffer buf, int fieldNumber, int wireType, T value, Writer<? super T> writer, boolean present) {
+        if ( null == value ) {
+            if ( present ) writeTag(buf, fieldNumber, NULL);
+            return;
+        }
+        writeTag(buf, fieldNumber, wireType);
+        if ( NESTED == wireType ) {
+            writeNested(value, buf, writer);
+        } else {
+            writer.write(value, buf);
+        }
+    }
+
+    public static <T> T readField(ByteBuffer buf, int wireType, Reader<? extends T> reader) {
+        switch ( wireType ) {
+        case NULL:
+            return null;
+        case NESTED:
+            return readNested(buf, reader);
+        default:
+            return reader.read(buf);
+        }
+    }
+
+    public static void skip(ByteBuffer buf, int wireType) {
+        switch ( wireType ) {
+        case VARINT:
+            readVarint(buf);
+            break;
+        case FIXED64:
+            buf.position(buf.position() + 8);
+            break;
+        case BYTES:
+            int length = readLength(buf);
+            buf.position(buf.position() + length);
+            break;
+        case NESTED:
+            buf.position(buf.position() + 4 + buf.getInt(buf.position()));
+            break;
+        case NULL:
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown wireType="+wireType);
+        }
+    }
+
+    // The length is written after the value, so it has a fixed size:
+    public static <T> void writeNested(T value, ByteBuffer buf, Writer<? super T> writer) {
+        int start = buf.position();
+        buf.putInt(0);
+        writer.write(value, buf);
+        buf.putInt(start, buf.position() - start - 4);
+    }
+
+    public static <T> T readNested(ByteBuffer buf, Reader<? extends T> reader) {
+        int length = buf.getInt();
+        int end = buf.position() + length;
+        T value = reader.read(buf);
+        buf.position(end);
+        return value;
+    }
+
+    public static <T> void writeList(List<T> list, ByteBuffer buf, Writer<? super T> writer) {
+        writeVarint(list.size(), buf);
+        for ( T elm : list ) {
+            if ( null == elm ) {
+                buf.put((byte)0);
+            } else {
+                buf.put((byte)1);
+                writer.write(elm, buf);
+            }
+        }
+    }
+
+    public static <T> List<T> readList(ByteBuffer buf, Reader<? extends T> reader) {
+        int size = readLength(buf);
+        List<T> list = new ArrayList<>(size);
+        for ( int i=0; i < size; i++ ) {
+            list.add(( 0 == buf.get() ) ? null : reader.read(buf));
+        }
+        return list;
+    }
+
+    public static void writeVarint(long value, ByteBuffer buf) {
+        while ( 0 != (value & ~0x7FL) ) {
+            buf.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte)value);
+    }
+
+    public static long readVarint(ByteBuffer buf) {
+        long value = 0;
+        for ( int shift=0; shift < 64; shift += 7 ) {
+            byte b = buf.get();
+            value |= (long)(b & 0x7F) << shift;
+            if ( 0 == (b & 0x80) ) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    public static void writeInt(int value, ByteBuffer buf) {
+        writeVarint((value << 1) ^ (value >> 31), buf);
+    }
+
+    public static int readInt(ByteBuffer buf) {
+        int value = (int)readVarint(buf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeLong(long value, ByteBuffer buf) {
+        writeVarint((value << 1) ^ (value >> 63), buf);
+    }
+
+    public static long readLong(ByteBuffer buf) {
+        long value = readVarint(buf);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public static void writeShort(short value, ByteBuffer buf) {
+        writeInt(value, buf);
+    }
+
+    public static short readShort(ByteBuffer buf) {
+        return (short)readInt(buf);
+    }
+
+    public static void writeByte(byte value, ByteBuffer buf) {
+        writeInt(value, buf);
+    }
+
+    public static byte readByte(ByteBuffer buf) {
+        return (byte)readInt(buf);
+    }
+
+    public static void writeCharacter(char value, ByteBuffer buf) {
+        writeVarint(value, buf);
+    }
+
+    public static char readCharacter(ByteBuffer buf) {
+        return (char)readVarint(buf);
+    }
+
+    public static void writeBoolean(boolean value, ByteBuffer buf) {
+        buf.put(value ? (byte)1 : (byte)0);
+    }
+
+    public static boolean readBoolean(ByteBuffer buf) {
+        return 0 != readVarint(buf);
+    }
+
+    public static void writeDouble(double value, ByteBuffer buf) {
+        buf.putDouble(value);
+    }
+
+    public static double readDouble(ByteBuffer buf) {
+        return buf.getDouble();
+    }
+
+    public static void writeString(String value, ByteBuffer buf) {
+        writeBytes(value.getBytes(UTF_8), buf);
+    }
+
+    public static String readString(ByteBuffer buf) {
+        return new String(readBytes(buf), UTF_8);
+    }
+
+    public static void writeBigInteger(BigInteger value, ByteBuffer buf) {
+        writeBytes(value.toByteArray(), buf);
+    }
+
+    public static BigInteger readBigInteger(ByteBuffer buf) {
+        return new BigInteger(readBytes(buf));
+    }
+
+    public static void writeBigDecimal(BigDecimal value, ByteBuffer buf) {
+        writeString(value.toString(), buf);
+    }
+
+    public static BigDecimal readBigDecimal(ByteBuffer buf) {
+        return new BigDecimal(readString(buf));
+    }
+
+    private static void writeBytes(byte[] bytes, ByteBuffer buf) {
+        writeVarint(bytes.length, buf);
+        buf.put(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buf) {
+        byte[] bytes = new byte[readLength(buf)];
+        buf.get(bytes);
+        return bytes;
+    }
+
+    private static int readLength(ByteBuffer buf) {
+        long length = readVarint(buf);
+        if ( length < 0 || length > buf.remaining() ) {
+            throw new IllegalArgumentException("Invalid length="+length+" remaining="+buf.remaining());
+        }
+        return (int)length;
+    }
+}
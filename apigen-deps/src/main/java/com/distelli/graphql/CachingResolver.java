@@ -0,0 +1,250 @@
+package com.distelli.graphql;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Decorates a {@link Resolver} with a bounded cache of resolved instances
+ * which is shared across requests. Instances are keyed by their id, entries
+ * are evicted when they are older than the time to live or when the least
+ * recently used entry of a full stripe needs to make room.
+ *
+ * The cache is split into stripes, each with its own lock, and concurrent
+ * misses on the same id wait for a single load rather than all calling the
+ * wrapped resolver.
+ *
+ * Resolved instances are immutable, but the data behind them is not, so
+ * mutations should {@link #invalidate(Object)} the ids they change:
+ *
+ * <pre>
+ *   CachingResolver&lt;Author&gt; authors =
+ *       new CachingResolver&lt;&gt;(authorResolver, Author::getId, 10000, 5, TimeUnit.MINUTES);
+ *   bind(Author.Resolver.class).toInstance(authors::resolve);
+ * </pre>
+ */
+public class CachingResolver<T> implements Resolver<T> {
+    private static final int MAX_STRIPES = 16;
+
+    private static class Entry<T> {
+        private final T value;
+        private final long expiresAt;
+        private Entry(T value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class Stripe<T> {
+        private final Map<Object, Entry<T>> entries;
+        private final Map<Object, CompletableFuture<T>> loading = new HashMap<>();
+        private Stripe(int maxSize) {
+            entries = new LinkedHashMap<Object, Entry<T>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, CachingResolver.Entry<T>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+    }
+
+    private final Resolver<T> resolver;
+    private final Function<T, ?> idFunction;
+    private final long ttlNanos;
+    private final Stripe<T>[] stripes;
+
+    /**
+     * @param resolver is called for every instance not in the cache.
+     *
+     * @param idFunction returns the id of an instance, typically
+     *     <code>Type::getId</code>. Instances with a null id are never
+     *     cached.
+     *
+     * @param maxSize is the maximum number of cached instances.
+     *
+     * @param ttl is how long an instance is cached for, zero or less
+     *     caches until evicted by size.
+     */
+    @SuppressWarnings("unchecked")
+    public CachingResolver(Resolver<T> resolver, Function<T, ?> idFunction, int maxSize, long ttl, TimeUnit unit) {
+        if ( null == resolver ) throw new NullPointerException("resolver");
+        if ( null == idFunction ) throw new NullPointerException("idFunction");
+        if ( maxSize <= 0 ) throw new IllegalArgumentException("Expected maxSize > 0, got="+maxSize);
+        this.resolver = resolver;
+        this.idFunction = idFunction;
+        this.ttlNanos = ( ttl <= 0 ) ? 0 : unit.toNanos(ttl);
+        int numStripes = Math.min(MAX_STRIPES, maxSize);
+        int stripeSize = (maxSize + numStripes - 1) / numStripes;
+        this.stripes = new Stripe[numStripes];
+        for ( int i=0; i < numStripes; i++ ) {
+            stripes[i] = new Stripe<>(stripeSize);
+        }
+    }
+
+    @Override
+    public List<T> resolve(List<T> unresolved) {
+        if ( null == unresolved ) return null;
+        int size = unresolved.size();
+        List<T> result = new ArrayList<>(size);
+        // Index into misses, or -1 if not loaded by this call:
+        int[] missIndexes = new int[size];
+        // Loads started by another call (or earlier in this call):
+        CompletableFuture<T>[] waitFor = null;
+        List<T> misses = new ArrayList<>();
+        List<Object> missIds = new ArrayList<>();
+        List<CompletableFuture<T>> missFutures = new ArrayList<>();
+        long now = System.nanoTime();
+        for ( int i=0; i < size; i++ ) {
+            T elm = unresolved.get(i);
+            Object id = ( null == elm ) ? null : idFunction.apply(elm);
+            missIndexes[i] = -1;
+            result.add(null);
+            if ( null == id ) {
+                missIndexes[i] = misses.size();
+                misses.add(elm);
+                missIds.add(null);
+                missFutures.add(null);
+                continue;
+            }
+            Stripe<T> stripe = getStripe(id);
+            CompletableFuture<T> future;
+            synchronized ( stripe ) {
+                Entry<T> entry = stripe.entries.get(id);
+                if ( null != entry ) {
+                    if ( ttlNanos <= 0 || entry.expiresAt - now > 0 ) {
+                        result.set(i, entry.value);
+                        continue;
+                    }
+                    stripe.entries.remove(id);
+                }
+                future = stripe.loading.get(id);
+                if ( null == future ) {
+                    future = new CompletableFuture<>();
+                    stripe.loading.put(id, future);
+                    missIndexes[i] = misses.size();
+                    misses.add(elm);
+                    missIds.add(id);
+                    missFutures.add(future);
+                    continue;
+                }
+            }
+            if ( null == waitFor ) waitFor = newFutureArray(size);
+            waitFor[i] = future;
+        }
+        List<T> resolved = misses.isEmpty() ?
+            misses : load(misses, missIds, missFutures);
+        for ( int i=0; i < size; i++ ) {
+            if ( missIndexes[i] >= 0 ) {
+                result.set(i, resolved.get(missIndexes[i]));
+            } else if ( null != waitFor && null != waitFor[i] ) {
+                result.set(i, join(waitFor[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove an id from the cache so the next resolve will call the wrapped
+     * resolver. Loads already in progress for the id are not cached.
+     */
+    public void invalidate(Object id) {
+        if ( null == id ) return;
+        Stripe<T> stripe = getStripe(id);
+        synchronized ( stripe ) {
+            stripe.entries.remove(id);
+            stripe.loading.remove(id);
+        }
+    }
+
+    public void invalidateAll() {
+        for ( Stripe<T> stripe : stripes ) {
+            synchronized ( stripe ) {
+                stripe.entries.clear();
+                stripe.loading.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached instances, including ones that have
+     *     expired but not yet been removed.
+     */
+    public int size() {
+        int size = 0;
+        for ( Stripe<T> stripe : stripes ) {
+            synchronized ( stripe ) {
+                size += stripe.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private List<T> load(List<T> misses, List<Object> missIds, List<CompletableFuture<T>> missFutures) {
+        List<T> resolved;
+        try {
+            resolved = resolver.resolve(misses);
+            if ( null == resolved || resolved.size() != misses.size() ) {
+                throw new IllegalStateException(
+                    "Expected resolver to return "+misses.size()+" elements, got="+
+                    ( null == resolved ? null : resolved.size() ));
+            }
+        } catch ( RuntimeException ex ) {
+            for ( int i=0; i < misses.size(); i++ ) {
+                Object id = missIds.get(i);
+                if ( null == id ) continue;
+                CompletableFuture<T> future = missFutures.get(i);
+                Stripe<T> stripe = getStripe(id);
+                synchronized ( stripe ) {
+                    stripe.loading.remove(id, future);
+                }
+                future.completeExceptionally(ex);
+            }
+            throw ex;
+        }
+        long expiresAt = System.nanoTime() + ttlNanos;
+        for ( int i=0; i < misses.size(); i++ ) {
+            T value = resolved.get(i);
+            Object id = missIds.get(i);
+            if ( null == id ) continue;
+            CompletableFuture<T> future = missFutures.get(i);
+            Stripe<T> stripe = getStripe(id);
+            synchronized ( stripe ) {
+                // Only cache if this load was not invalidated, and do not
+                // cache instances that failed to resolve:
+                if ( stripe.loading.remove(id, future) && null != value ) {
+                    stripe.entries.put(id, new Entry<>(value, expiresAt));
+                }
+            }
+            future.complete(value);
+        }
+        return resolved;
+    }
+
+    private Stripe<T> getStripe(Object id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T>[] newFutureArray(int size) {
+        return new CompletableFuture[size];
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch ( CompletionException ex ) {
+            if ( ex.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException)ex.getCause();
+            }
+            throw ex;
+        }
+    }
+}
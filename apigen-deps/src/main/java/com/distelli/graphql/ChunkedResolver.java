@@ -0,0 +1,95 @@
+package com.distelli.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Decorates an {@link AsyncResolver} so it is never called with more than
+ * maxBatchSize instances. Larger batches are split into chunks which are
+ * resolved concurrently on the executor, and the results are reassembled
+ * in the original order. The DataFetchingEnvironment is passed on to each
+ * chunk, so the wrapped resolver still sees the selected fields:
+ *
+ * <pre>
+ *   ChunkedResolver&lt;Author&gt; authors = new ChunkedResolver&lt;&gt;(authorResolver, 500, executor);
+ *   bind(Author.AsyncResolver.class).toInstance(Author.AsyncResolver.from(authors));
+ * </pre>
+ */
+public class ChunkedResolver<T> implements AsyncResolver<T> {
+    private final AsyncResolver<T> resolver;
+    private final int maxBatchSize;
+    private final Executor executor;
+
+    /**
+     * @param resolver is called with at most maxBatchSize instances.
+     *
+     * @param maxBatchSize is the maximum number of instances passed to a
+     *     single resolver call.
+     *
+     * @param executor runs each chunk, use an executor sized for the
+     *     resolver's I/O.
+     */
+    public ChunkedResolver(AsyncResolver<T> resolver, int maxBatchSize, Executor executor) {
+        if ( null == resolver ) throw new NullPointerException("resolver");
+        if ( null == executor ) throw new NullPointerException("executor");
+        if ( maxBatchSize <= 0 ) throw new IllegalArgumentException("Expected maxBatchSize > 0, got="+maxBatchSize);
+        this.resolver = resolver;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<List<T>> resolveAsync(List<T> unresolved) {
+        return resolveAsync(unresolved, null);
+    }
+
+    /**
+     * @param env is passed to the wrapped resolver, null to call the
+     *     resolveAsync(List) overload.
+     */
+    @Override
+    public CompletableFuture<List<T>> resolveAsync(List<T> unresolved, DataFetchingEnvironment env) {
+        if ( null == unresolved || unresolved.size() <= maxBatchSize ) {
+            return resolve(unresolved, env);
+        }
+        int size = unresolved.size();
+        List<CompletableFuture<List<T>>> chunks = new ArrayList<>((size + maxBatchSize - 1) / maxBatchSize);
+        for ( int start=0; start < size; start += maxBatchSize ) {
+            List<T> chunk = unresolved.subList(start, Math.min(size, start + maxBatchSize));
+            chunks.add(CompletableFuture.supplyAsync(() -> resolveChunk(chunk, env), executor)
+                       .thenCompose((future) -> future));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[chunks.size()]))
+            .thenApply((ignored) -> {
+                    List<T> resolved = new ArrayList<>(size);
+                    for ( CompletableFuture<List<T>> chunk : chunks ) {
+                        resolved.addAll(chunk.join());
+                    }
+                    return resolved;
+                });
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    private CompletableFuture<List<T>> resolve(List<T> unresolved, DataFetchingEnvironment env) {
+        return ( null == env )
+            ? resolver.resolveAsync(unresolved)
+            : resolver.resolveAsync(unresolved, env);
+    }
+
+    private CompletableFuture<List<T>> resolveChunk(List<T> chunk, DataFetchingEnvironment env) {
+        return resolve(chunk, env).thenApply((resolved) -> {
+                if ( null == resolved || resolved.size() != chunk.size() ) {
+                    throw new IllegalStateException(
+                        "Expected resolver "+resolver+" to return "+chunk.size()+" elements, got="+
+                        ( null == resolved ? null : resolved.size() ));
+                }
+                return resolved;
+            });
+    }
+}
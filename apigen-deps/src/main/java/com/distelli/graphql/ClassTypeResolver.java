@@ -0,0 +1,86 @@
+package com.distelli.graphql;
+
+import graphql.TypeResolutionEnvironment;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.TypeResolver;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the object type of an interface or union value by the generated
+ * interface its class implements, for example an Impl of Human (or any other
+ * class implementing Human) resolves to the Human type. Each class is only
+ * resolved once, after which resolving a value is a ClassValue lookup.
+ *
+ * If a class implements more than one of the possible types, the first one
+ * given to the Builder is used.
+ */
+public class ClassTypeResolver implements TypeResolver {
+    public static class Builder {
+        private List<Class<?>> classes = new ArrayList<>();
+        private List<String> typeNames = new ArrayList<>();
+        public Builder withType(Class<?> javaClass, String typeName) {
+            classes.add(javaClass);
+            typeNames.add(typeName);
+            return this;
+        }
+        public ClassTypeResolver build() {
+            return new ClassTypeResolver(this);
+        }
+    }
+
+    // The object types are looked up in the schema being executed, so they
+    // are cached for the last schema seen:
+    private static class SchemaTypes extends ClassValue<GraphQLObjectType> {
+        private final GraphQLSchema schema;
+        private final ClassValue<String> typeNames;
+        private SchemaTypes(GraphQLSchema schema, ClassValue<String> typeNames) {
+            this.schema = schema;
+            this.typeNames = typeNames;
+        }
+        @Override
+        protected GraphQLObjectType computeValue(Class<?> javaClass) {
+            String typeName = typeNames.get(javaClass);
+            return ( null == typeName ) ? null : schema.getObjectType(typeName);
+        }
+    }
+
+    private final Class<?>[] classes;
+    private final String[] typeNames;
+    private final ClassValue<String> typeNamesByClass = new ClassValue<String>() {
+            @Override
+            protected String computeValue(Class<?> javaClass) {
+                for ( int i=0; i < classes.length; i++ ) {
+                    if ( classes[i].isAssignableFrom(javaClass) ) return typeNames[i];
+                }
+                return null;
+            }
+        };
+    private volatile SchemaTypes schemaTypes;
+
+    protected ClassTypeResolver(Builder builder) {
+        classes = builder.classes.toArray(new Class<?>[builder.classes.size()]);
+        typeNames = builder.typeNames.toArray(new String[builder.typeNames.size()]);
+    }
+
+    /**
+     * @return the name of the object type of javaClass, null if it does not
+     *     implement any of the possible types.
+     */
+    public String getTypeName(Class<?> javaClass) {
+        return typeNamesByClass.get(javaClass);
+    }
+
+    @Override
+    public GraphQLObjectType getType(TypeResolutionEnvironment env) {
+        Object obj = env.getObject();
+        if ( null == obj ) return null;
+        SchemaTypes types = schemaTypes;
+        if ( null == types || types.schema != env.getSchema() ) {
+            types = new SchemaTypes(env.getSchema(), typeNamesByClass);
+            schemaTypes = types;
+        }
+        return types.get(obj.getClass());
+    }
+}
@@ -0,0 +1,138 @@
+package com.distelli.graphql;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Used by {@link ResolverDataFetcher} to call a non-batched fetcher for
+ * every source of a batch concurrently rather than one at a time. Bind an
+ * instance to opt in, for example with Guice:
+ *
+ * <pre>
+ *   bind(FanOutExecutor.class).toInstance(FanOutExecutor.newDefault(32));
+ * </pre>
+ */
+public class FanOutExecutor {
+    private final Executor executor;
+    private final int maxConcurrency;
+
+    /**
+     * @param executor runs the calls, the calling thread also runs calls
+     *     while it waits.
+     *
+     * @param maxConcurrency is the maximum number of concurrent calls made
+     *     for a single batch.
+     */
+    public FanOutExecutor(Executor executor, int maxConcurrency) {
+        if ( null == executor ) throw new NullPointerException("executor");
+        if ( maxConcurrency <= 0 ) throw new IllegalArgumentException("Expected maxConcurrency > 0, got="+maxConcurrency);
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * @return a FanOutExecutor which uses a virtual thread per call when
+     *     running on Java 21+, otherwise a cached pool of daemon threads.
+     */
+    public static FanOutExecutor newDefault(int maxConcurrency) {
+        return new FanOutExecutor(newDefaultExecutor(), maxConcurrency);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Call fn for every index in [0, size) and return the results in index
+     * order. If any call fails, no new calls are started and the exception
+     * from the lowest failed index is rethrown, just as a serial loop would
+     * have thrown it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> invokeAll(int size, IntFunction<T> fn) {
+        Object[] results = new Object[size];
+        Throwable[] errors = new Throwable[size];
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int workers = Math.min(maxConcurrency, size);
+        CountDownLatch done = new CountDownLatch(workers);
+        Runnable worker = () -> {
+            try {
+                while ( 0 == failed.get() ) {
+                    int index = nextIndex.getAndIncrement();
+                    if ( index >= size ) break;
+                    try {
+                        results[index] = fn.apply(index);
+                    } catch ( Throwable ex ) {
+                        errors[index] = ex;
+                        failed.incrementAndGet();
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        };
+        // The calling thread is always one of the workers:
+        for ( int i=1; i < workers; i++ ) {
+            try {
+                executor.execute(worker);
+            } catch ( RejectedExecutionException ex ) {
+                done.countDown();
+            }
+        }
+        if ( workers > 0 ) worker.run();
+        try {
+            done.await();
+        } catch ( InterruptedException ex ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+        if ( failed.get() > 0 ) {
+            for ( Throwable error : errors ) {
+                if ( null == error ) continue;
+                if ( error instanceof RuntimeException ) throw (RuntimeException)error;
+                if ( error instanceof Error ) throw (Error)error;
+                throw new IllegalStateException(error);
+            }
+        }
+        List<T> list = new ArrayList<>(size);
+        for ( Object result : results ) {
+            list.add((T)result);
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "FanOutExecutor{"+
+            "executor="+executor+
+            ", maxConcurrency="+maxConcurrency+
+            "}";
+    }
+
+    private static Executor newDefaultExecutor() {
+        try {
+            // Java 21+, this project targets Java 8 so use reflection:
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService)method.invoke(null);
+        } catch ( ReflectiveOperationException ex ) {
+            return Executors.newCachedThreadPool((runnable) -> {
+                    Thread thread = new Thread(runnable, "FanOutExecutor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+    }
+}
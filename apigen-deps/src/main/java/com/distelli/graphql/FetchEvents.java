@@ -0,0 +1,48 @@
+package com.distelli.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+
+// Emits FieldFetchEvents if the JVM has Flight Recorder, events are passed
+// around as Object so callers never load jdk.jfr classes. FieldFetchEvent is
+// only compiled when building on JDK 11 or later (see the jfr profile in
+// pom.xml), so it is loaded by name:
+final class FetchEvents {
+    interface Recorder {
+        public Object beginIfEnabled();
+        public void setResolved(Object event, int listDepth, int batchSize, Object resolver);
+        public void commit(Object event, DataFetchingEnvironment env);
+    }
+
+    private static final Recorder RECORDER = loadRecorder();
+
+    private FetchEvents() {}
+
+    /**
+     * @return null if the event is not enabled in a running recording.
+     */
+    static Object begin() {
+        return ( null == RECORDER ) ? null : RECORDER.beginIfEnabled();
+    }
+
+    static void setResolved(Object event, int listDepth, int batchSize, Object resolver) {
+        if ( null == event ) return;
+        RECORDER.setResolved(event, listDepth, batchSize, resolver);
+    }
+
+    static void commit(Object event, DataFetchingEnvironment env) {
+        if ( null == event ) return;
+        RECORDER.commit(event, env);
+    }
+
+    private static Recorder loadRecorder() {
+        ClassLoader loader = FetchEvents.class.getClassLoader();
+        try {
+            Class.forName("jdk.jfr.Event", false, loader);
+            return (Recorder)Class.forName("com.distelli.graphql.FieldFetchEvent$Recorder", true, loader)
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch ( ReflectiveOperationException|LinkageError ex ) {
+            return null;
+        }
+    }
+}
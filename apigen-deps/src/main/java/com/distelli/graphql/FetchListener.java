@@ -0,0 +1,35 @@
+package com.distelli.graphql;
+
+/**
+ * Bind an implementation (for example {@link FetchMetrics}) to observe every
+ * field fetch and resolver batch of the generated schema. When nothing is
+ * bound, or {@link #NOOP} is bound, the data fetchers are not wrapped at all.
+ *
+ * Implementations are called from the fetching threads, so they must be
+ * thread safe and should be fast.
+ */
+public interface FetchListener {
+    public static final FetchListener NOOP = new FetchListener() {
+        @Override
+        public String toString() {
+            return "FetchListener.NOOP";
+        }
+    };
+
+    /**
+     * Called after a field has been fetched, including the time spent
+     * resolving the fetched value.
+     *
+     * @param error is null if the fetch succeeded.
+     */
+    public default void onFetch(String parentType, String fieldName, long durationNanos, Throwable error) {}
+
+    /**
+     * Called after a resolver has completed a batch.
+     *
+     * @param typeName is the fully qualified type being resolved.
+     *
+     * @param error is null if the resolve succeeded.
+     */
+    public default void onResolve(String typeName, int batchSize, long durationNanos, Throwable error) {}
+}
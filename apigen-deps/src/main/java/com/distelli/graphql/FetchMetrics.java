@@ -0,0 +1,108 @@
+package com.distelli.graphql;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link FetchListener} which keeps latency histograms and error counts
+ * for every field, and batch size and latency histograms for every
+ * resolver. Nothing is locked when recording.
+ */
+public class FetchMetrics implements FetchListener {
+    public static class FieldMetrics {
+        private final LatencyHistogram latencyNanos = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        public LatencyHistogram getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "FieldMetrics{"+
+                "latencyNanos="+latencyNanos+
+                ", errors="+errors+
+                "}";
+        }
+    }
+
+    public static class ResolverMetrics {
+        private final LatencyHistogram latencyNanos = new LatencyHistogram();
+        private final LatencyHistogram batchSize = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        public LatencyHistogram getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        public LatencyHistogram getBatchSize() {
+            return batchSize;
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "ResolverMetrics{"+
+                "latencyNanos="+latencyNanos+
+                ", batchSize="+batchSize+
+                ", errors="+errors+
+                "}";
+        }
+    }
+
+    private final Map<String, FieldMetrics> fields = new ConcurrentHashMap<>();
+    private final Map<String, ResolverMetrics> resolvers = new ConcurrentHashMap<>();
+
+    @Override
+    public void onFetch(String parentType, String fieldName, long durationNanos, Throwable error) {
+        String key = parentType + "." + fieldName;
+        FieldMetrics metrics = fields.get(key);
+        if ( null == metrics ) {
+            metrics = fields.computeIfAbsent(key, (ignored) -> new FieldMetrics());
+        }
+        metrics.latencyNanos.record(durationNanos);
+        if ( null != error ) metrics.errors.increment();
+    }
+
+    @Override
+    public void onResolve(String typeName, int batchSize, long durationNanos, Throwable error) {
+        ResolverMetrics metrics = resolvers.get(typeName);
+        if ( null == metrics ) {
+            metrics = resolvers.computeIfAbsent(typeName, (ignored) -> new ResolverMetrics());
+        }
+        metrics.latencyNanos.record(durationNanos);
+        metrics.batchSize.record(batchSize);
+        if ( null != error ) metrics.errors.increment();
+    }
+
+    /**
+     * @return the metrics keyed by "ParentType.fieldName".
+     */
+    public Map<String, FieldMetrics> getFieldMetrics() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    /**
+     * @return the metrics keyed by the fully qualified type name.
+     */
+    public Map<String, ResolverMetrics> getResolverMetrics() {
+        return Collections.unmodifiableMap(resolvers);
+    }
+
+    @Override
+    public String toString() {
+        return "FetchMetrics{"+
+            "fields="+fields+
+            ", resolvers="+resolvers+
+            "}";
+    }
+}
@@ -0,0 +1,68 @@
+package com.distelli.graphql;
+
+import graphql.schema.DataFetchingEnvironment;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a single field fetch. Disabled by default,
+ * enable "com.distelli.graphql.FieldFetch" in the recording settings. Only
+ * loaded by {@link FetchEvents} on a JVM with Flight Recorder, and only
+ * compiled on JDK 11 or later.
+ */
+@Name("com.distelli.graphql.FieldFetch")
+@Label("GraphQL Field Fetch")
+@Description("Fetch of a field by a MethodDataFetcher or ResolverDataFetcher, including resolving")
+@Category("GraphQL")
+@Enabled(false)
+@StackTrace(false)
+class FieldFetchEvent extends Event {
+    @Label("Parent Type")
+    String parentType;
+
+    @Label("Field Name")
+    String fieldName;
+
+    @Label("List Depth")
+    int listDepth;
+
+    @Label("Batch Size")
+    @Description("Number of instances passed to the resolver")
+    int batchSize;
+
+    @Label("Resolver Class")
+    Class<?> resolverClass;
+
+    static final class Recorder implements FetchEvents.Recorder {
+        @Override
+        public Object beginIfEnabled() {
+            FieldFetchEvent event = new FieldFetchEvent();
+            if ( ! event.isEnabled() ) return null;
+            event.begin();
+            return event;
+        }
+
+        @Override
+        public void setResolved(Object obj, int listDepth, int batchSize, Object resolver) {
+            FieldFetchEvent event = (FieldFetchEvent)obj;
+            event.listDepth = listDepth;
+            event.batchSize = batchSize;
+            event.resolverClass = ( null == resolver ) ? null : resolver.getClass();
+        }
+
+        @Override
+        public void commit(Object obj, DataFetchingEnvironment env) {
+            FieldFetchEvent event = (FieldFetchEvent)obj;
+            event.end();
+            if ( ! event.shouldCommit() ) return;
+            event.parentType = env.getParentType().getName();
+            event.fieldName = env.getField().getName();
+            event.commit();
+        }
+    }
+}
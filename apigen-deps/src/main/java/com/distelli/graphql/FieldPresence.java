@@ -0,0 +1,23 @@
+package com.distelli.graphql;
+
+import java.util.List;
+
+/**
+ * Implemented by the generated *.Impl and *.Unresolved classes so
+ * {@link ResolverDataFetcher} only calls the resolver for instances that are
+ * missing a field selected by the query.
+ */
+public interface FieldPresence {
+    /**
+     * @return a bitset where bit i is set if the i'th field of the type (in
+     *     schema order) was set. Only the first 63 fields are tracked, bit 63
+     *     is never set.
+     */
+    public long getFieldPresence();
+
+    /**
+     * @return the field names of the type in bit order. All instances of a
+     *     type must return the same (constant) list.
+     */
+    public List<String> getFieldPresenceNames();
+}
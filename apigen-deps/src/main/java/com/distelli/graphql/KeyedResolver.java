@@ -0,0 +1,47 @@
+package com.distelli.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Alternative to {@link Resolver} for implementations that look objects up
+ * by id. Implementations are called with the distinct ids and may return
+ * the resolved objects in any order, the ids are mapped back onto the
+ * unresolved list (including duplicates and nulls) by resolveAsync().
+ *
+ * The generated *.KeyedResolver interfaces implement getKey().
+ */
+public interface KeyedResolver<K, T> extends AsyncResolver<T> {
+    /**
+     * @param ids the distinct (non-null) ids to resolve.
+     *
+     * @return the resolved objects keyed by id, ids that are not found may
+     *     be omitted and resolve to null.
+     */
+    public Map<K, T> resolveByIds(Set<K> ids);
+
+    public K getKey(T unresolved);
+
+    @Override
+    public default CompletableFuture<List<T>> resolveAsync(List<T> unresolved) {
+        Set<K> ids = new HashSet<>(Math.max(16, (int)(unresolved.size() / .75f) + 1));
+        for ( T elm : unresolved ) {
+            K id = ( null == elm ) ? null : getKey(elm);
+            if ( null != id ) ids.add(id);
+        }
+        Map<K, T> resolved = ( ids.isEmpty() )
+            ? Collections.<K, T>emptyMap()
+            : resolveByIds(Collections.unmodifiableSet(ids));
+        List<T> result = new ArrayList<>(unresolved.size());
+        for ( T elm : unresolved ) {
+            K id = ( null == elm ) ? null : getKey(elm);
+            result.add(( null == id || null == resolved ) ? null : resolved.get(id));
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+}
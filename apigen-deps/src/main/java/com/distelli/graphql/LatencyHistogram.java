@@ -0,0 +1,101 @@
+package com.distelli.graphql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free log-linear histogram of non-negative longs. Every power of two
+ * is split into 16 linear sub-buckets, so any recorded value is reported
+ * within about 6% of its true value, similar to an HdrHistogram with one
+ * significant digit. Recording increments the value's bucket and adds to
+ * the count and sum (LongAdders, so concurrent recording does not contend
+ * on them). The max is only updated by CAS when a new maximum is seen.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if ( value < 0 ) value = 0;
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long prevMax = max.get();
+        while ( value > prevMax && ! max.compareAndSet(prevMax, value) ) {
+            prevMax = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long total = count.sum();
+        return ( 0 == total ) ? 0 : (double)sum.sum() / total;
+    }
+
+    /**
+     * @param percentile in the range [0, 100].
+     *
+     * @return the highest value of the sub-bucket containing the percentile,
+     *     or zero if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[NUM_BUCKETS];
+        for ( int i=0; i < NUM_BUCKETS; i++ ) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if ( 0 == total ) return 0;
+        long target = (long)Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total);
+        if ( target <= 0 ) target = 1;
+        long seen = 0;
+        for ( int i=0; i < NUM_BUCKETS; i++ ) {
+            seen += snapshot[i];
+            if ( seen >= target ) {
+                return Math.min(highestValueAt(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{"+
+            "count="+getCount()+
+            ", mean="+getMean()+
+            ", p50="+getValueAtPercentile(50)+
+            ", p99="+getValueAtPercentile(99)+
+            ", max="+getMax()+
+            "}";
+    }
+
+    private static int indexOf(long value) {
+        if ( value < SUB_BUCKETS ) return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueAt(int index) {
+        if ( index < SUB_BUCKETS ) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
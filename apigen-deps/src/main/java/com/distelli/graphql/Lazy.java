@@ -0,0 +1,57 @@
+package com.distelli.graphql;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes a Supplier, which is called at most once (unless it throws, in
+ * which case the next get() calls it again). Used by the generated Builders
+ * so expensive fields are only computed if read:
+ *
+ * <pre>
+ *   new Author.Builder()
+ *       .withId(id)
+ *       .withPostsSupplier(() -&gt; loadPosts(id))
+ *       .build();
+ * </pre>
+ */
+public final class Lazy<T> implements Supplier<T> {
+    // Cleared once evaluated, so whatever the supplier captures may be
+    // collected:
+    private volatile Supplier<? extends T> supplier;
+    private T value;
+
+    private Lazy(Supplier<? extends T> supplier) {
+        this.supplier = supplier;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Lazy<T> of(Supplier<? extends T> supplier) {
+        if ( supplier instanceof Lazy ) return (Lazy<T>)supplier;
+        return new Lazy<T>(Objects.requireNonNull(supplier, "supplier"));
+    }
+
+    @Override
+    public T get() {
+        if ( null != supplier ) {
+            synchronized ( this ) {
+                Supplier<? extends T> current = supplier;
+                if ( null != current ) {
+                    value = current.get();
+                    // The volatile write publishes value:
+                    supplier = null;
+                }
+            }
+        }
+        return value;
+    }
+
+    public boolean isEvaluated() {
+        return null == supplier;
+    }
+
+    @Override
+    public String toString() {
+        return isEvaluated() ? String.valueOf(value) : "Lazy{unevaluated}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.distelli.graphql;
+
+import graphql.execution.batched.Batched;
+import graphql.execution.batched.BatchedDataFetcher;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reports the latency of a data fetcher to a {@link FetchListener}. The
+ * generated TypeProviders wrap every field with {@link #wrap}.
+ */
+public class ListeningDataFetcher implements DataFetcher {
+    private final FetchListener listener;
+    private final DataFetcher fetcher;
+
+    /**
+     * @return the fetcher unchanged if there is no listener, or the fetcher
+     *     is batched (other than a ResolverDataFetcher, which reports to the
+     *     listener itself). Otherwise a ListeningDataFetcher.
+     */
+    public static DataFetcher wrap(FetchListener listener, DataFetcher fetcher) {
+        if ( null == listener || FetchListener.NOOP == listener || null == fetcher ) {
+            return fetcher;
+        }
+        if ( fetcher instanceof ResolverDataFetcher ) {
+            return ((ResolverDataFetcher)fetcher).withFetchListener(listener);
+        }
+        if ( isBatched(fetcher) ) return fetcher;
+        return new ListeningDataFetcher(listener, fetcher);
+    }
+
+    public ListeningDataFetcher(FetchListener listener, DataFetcher fetcher) {
+        this.listener = listener;
+        this.fetcher = fetcher;
+    }
+
+    @Override
+    public Object get(DataFetchingEnvironment env) throws Exception {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = fetcher.get(env);
+        } catch ( Exception ex ) {
+            onFetch(listener, env, start, ex);
+            throw ex;
+        }
+        return onFetch(listener, env, start, result);
+    }
+
+    public DataFetcher getFetcher() {
+        return fetcher;
+    }
+
+    @Override
+    public String toString() {
+        return "ListeningDataFetcher{"+
+            "listener="+listener+
+            ", fetcher="+fetcher+
+            "}";
+    }
+
+    // Report when the result completes, returns the result to pass on:
+    static Object onFetch(FetchListener listener, DataFetchingEnvironment env, long start, Object result) {
+        if ( result instanceof CompletableFuture ) {
+            return ((CompletableFuture<?>)result).whenComplete(
+                (ignored, ex) -> onFetch(listener, env, start, ex));
+        }
+        onFetch(listener, env, start, (Throwable)null);
+        return result;
+    }
+
+    static void onFetch(FetchListener listener, DataFetchingEnvironment env, long start, Throwable error) {
+        listener.onFetch(
+            env.getParentType().getName(),
+            env.getField().getName(),
+            System.nanoTime() - start,
+            error);
+    }
+
+    private static boolean isBatched(DataFetcher fetcher) {
+        if ( fetcher instanceof BatchedDataFetcher ) return true;
+        try {
+            return null != fetcher.getClass()
+                .getMethod("get", DataFetchingEnvironment.class)
+                .getAnnotation(Batched.class);
+        } catch ( NoSuchMethodException ex ) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.distelli.graphql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link KeyedResolver} specialized for non-null Long ids so ids are never
+ * boxed. Implementations are called with the distinct ids in ascending
+ * order and may return the resolved objects in any order, resolveAsync()
+ * maps them back onto the unresolved list by binary search.
+ *
+ * The generated *.LongKeyedResolver interfaces implement getKey() and
+ * hasKey().
+ *
+ * This is a copy of IntKeyedResolver with long ids (sharing the code would
+ * box the ids), so keep the two in sync.
+ */
+public interface LongKeyedResolver<T> extends AsyncResolver<T> {
+    /**
+     * @param ids the distinct ids to resolve in ascending order.
+     *
+     * @return the resolved objects in any order, ids that are not found may
+     *     be omitted and resolve to null.
+     */
+    public Collection<T> resolveByIds(long[] ids);
+
+    public long getKey(T obj);
+
+    /**
+     * @return false if obj has no id (for example it is null or was never
+     *     set), in which case it resolves to null instead of the object
+     *     with id 0.
+     */
+    public default boolean hasKey(T obj) {
+        return null != obj;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public default CompletableFuture<List<T>> resolveAsync(List<T> unresolved) {
+        long[] ids = new long[unresolved.size()];
+        int size = 0;
+        for ( T elm : unresolved ) {
+            if ( hasKey(elm) ) ids[size++] = getKey(elm);
+        }
+        Arrays.sort(ids, 0, size);
+        int unique = 0;
+        for ( int i=0; i < size; i++ ) {
+            if ( 0 == unique || ids[unique-1] != ids[i] ) ids[unique++] = ids[i];
+        }
+        if ( unique != ids.length ) ids = Arrays.copyOf(ids, unique);
+
+        Object[] found = new Object[unique];
+        Collection<T> resolved = ( 0 == unique ) ? null : resolveByIds(ids);
+        if ( null != resolved ) {
+            for ( T elm : resolved ) {
+                if ( ! hasKey(elm) ) continue;
+                int index = Arrays.binarySearch(ids, getKey(elm));
+                if ( index >= 0 ) found[index] = elm;
+            }
+        }
+        List<T> result = new ArrayList<>(unresolved.size());
+        for ( T elm : unresolved ) {
+            result.add(( ! hasKey(elm) ) ? null : (T)found[Arrays.binarySearch(ids, getKey(elm))]);
+        }
+        return CompletableFuture.completedFuture(result);
+    }
+}
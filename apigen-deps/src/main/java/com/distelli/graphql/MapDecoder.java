@@ -0,0 +1,24 @@
+package com.distelli.graphql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Used by the generated fromMap() methods to decode input values.
+public class MapDecoder {
+    private MapDecoder() {}
+
+    public static <T> List<T> decodeList(Object value, Function<Object, T> decoder) {
+        if ( null == value ) return null;
+        if ( ! (value instanceof Collection) ) {
+            throw new IllegalArgumentException("Expected a list, got="+value);
+        }
+        Collection<?> values = (Collection<?>)value;
+        List<T> result = new ArrayList<>(values.size());
+        for ( Object elm : values ) {
+            result.add(decoder.apply(elm));
+        }
+        return result;
+    }
+}
@@ -1,14 +1,20 @@
 // Nearly identical to graphql.schema.PropertyDataFetcher, but deals with arguments.
 package com.distelli.graphql;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import graphql.schema.GraphQLFieldDefinition;
 import graphql.schema.GraphQLFieldsContainer;
 import graphql.schema.GraphQLNonNull;
@@ -18,10 +24,27 @@ import graphql.schema.GraphQLType;
 import static graphql.Scalars.GraphQLBoolean;
 
 public class MethodDataFetcher implements DataFetcher {
+    private static final MethodType GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class);
+    private static final MethodType ARGS_GETTER_TYPE =
+        MethodType.methodType(Object.class, Object.class, Object.class);
+    private static final MethodType FROM_MAP_TYPE =
+        MethodType.methodType(Object.class, Map.class);
+    private static final MethodType FROM_MAP_SELECTION_TYPE =
+        MethodType.methodType(Object.class, Map.class, DataFetchingFieldSelectionSet.class);
+
     private final String propertyName;
     private final Class argType;
     private final Object impl;
+    // Generated <Field>Args.fromMap(Map) factory, null if we must proxy:
+    private final MethodHandle argsFromMap;
+    // Generated <Field>Args.fromMap(Map, DataFetchingFieldSelectionSet)
+    // factory, null if the args have no selection:
+    private final MethodHandle argsFromMapSelection;
     private String graphQLPropertyName = null;
+    // Getters resolved per concrete source class, so the steady state does
+    // no reflective lookups:
+    private final Map<Class<?>, MethodHandle> getters = new ConcurrentHashMap<>();
 
     public MethodDataFetcher(String propertyName, Class argType, Object impl) {
         if ( null != argType ) {
@@ -32,6 +55,8 @@ public class MethodDataFetcher implements DataFetcher {
         this.propertyName = propertyName;
         this.argType = argType;
         this.impl = impl;
+        this.argsFromMap = getFromMap(argType);
+        this.argsFromMapSelection = getFromMapSelection(argType);
     }
     
     public MethodDataFetcher(String propertyName, Class argType, Object impl, String graphQLPropertyName) {
@@ -41,12 +66,88 @@ public class MethodDataFetcher implements DataFetcher {
 
     @Override
     public Object get(DataFetchingEnvironment env) {
+        Object event = FetchEvents.begin();
+        if ( null == event ) return fetch(env);
+        try {
+            return fetch(env);
+        } finally {
+            FetchEvents.commit(event, env);
+        }
+    }
+
+    // Without a FieldFetch event, for a ResolverDataFetcher which records its own:
+    Object fetch(DataFetchingEnvironment env) {
         Object source = ( null != impl ) ? impl : env.getSource();
         if (source == null) return null;
         if (source instanceof ResolveDataFetchingEnvironment) {
             source = ((ResolveDataFetchingEnvironment)source).resolve(env);
         }
-        return getMethodViaGetter(source, env.getFieldType(), getFieldType(env.getParentType()), env.getArguments());
+        MethodHandle getter = getters.get(source.getClass());
+        if ( null == getter ) {
+            getter = getGetter(source.getClass(), env);
+            getters.put(source.getClass(), getter);
+        }
+        Object args = ( null == argType ) ? null : getArgs(env);
+        try {
+            if ( null == argType ) {
+                return getter.invokeExact(source);
+            }
+            return getter.invokeExact(source, args);
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(new InvocationTargetException(ex));
+        }
+    }
+
+    // Decode the field arguments, failures are not wrapped as getter failures:
+    private Object getArgs(DataFetchingEnvironment env) {
+        try {
+            if ( null != argsFromMapSelection ) {
+                return argsFromMapSelection.invokeExact(env.getArguments(), env.getSelectionSet());
+            } else if ( null != argsFromMap ) {
+                return argsFromMap.invokeExact(env.getArguments());
+            }
+        } catch (RuntimeException|Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new RuntimeException(ex);
+        }
+        return Proxy.newProxyInstance(argType.getClassLoader(),
+                                      new Class[]{argType},
+                                      new MapInvocationHandler(env.getArguments()));
+    }
+
+    // Find the generated static fromMap(Map) method, null if none exists:
+    private static MethodHandle getFromMap(Class type) {
+        if ( null == type ) return null;
+        try {
+            Method method = type.getMethod("fromMap", Map.class);
+            if ( ! Modifier.isStatic(method.getModifiers()) ||
+                 ! type.isAssignableFrom(method.getReturnType()) )
+            {
+                return null;
+            }
+            return MethodHandles.publicLookup().unreflect(method).asType(FROM_MAP_TYPE);
+        } catch (NoSuchMethodException|IllegalAccessException ex) {
+            return null;
+        }
+    }
+
+    // Find the generated static fromMap(Map, DataFetchingFieldSelectionSet) method, null if none exists:
+    private static MethodHandle getFromMapSelection(Class type) {
+        if ( null == type ) return null;
+        try {
+            Method method = type.getMethod("fromMap", Map.class, DataFetchingFieldSelectionSet.class);
+            if ( ! Modifier.isStatic(method.getModifiers()) ||
+                 ! type.isAssignableFrom(method.getReturnType()) )
+            {
+                return null;
+            }
+            return MethodHandles.publicLookup().unreflect(method).asType(FROM_MAP_SELECTION_TYPE);
+        } catch (NoSuchMethodException|IllegalAccessException ex) {
+            return null;
+        }
     }
 
     private GraphQLFieldDefinition getFieldType(GraphQLType type) {
@@ -62,27 +163,52 @@ public class MethodDataFetcher implements DataFetcher {
         return null;
     }
 
-    private Object getMethodViaGetter(Object object, GraphQLOutputType outputType, GraphQLFieldDefinition fieldDef, Map<String, Object> args) {
+    private MethodHandle getGetter(Class<?> sourceClass, DataFetchingEnvironment env) {
+        GraphQLFieldDefinition fieldDef = getFieldType(env.getParentType());
         if ( fieldDef.getArguments().size() > 0 ^ null != argType ) {
             throw new IllegalStateException(
                 "MethodDataFetcher created has argType="+argType+
                 " and invoked with argSize="+fieldDef.getArguments().size()+
                 ", argType must be null if argSize == 0; or argType must be non null and argSize > 0");
         }
+        Method method;
+        String tried;
+        if ( null != argType ) {
+            method = findMethod(sourceClass, propertyName);
+            tried = sourceClass.getName()+"."+propertyName+"("+argType.getName()+")";
+        } else if ( isBooleanMethod(env.getFieldType()) ) {
+            method = findMethod(sourceClass, getterName("is"));
+            if ( null == method ) method = findMethod(sourceClass, getterName("get"));
+            tried = sourceClass.getName()+"."+getterName("is")+"() or "+
+                sourceClass.getName()+"."+getterName("get")+"()";
+        } else {
+            method = findMethod(sourceClass, getterName("get"));
+            tried = sourceClass.getName()+"."+getterName("get")+"()";
+        }
+        if ( null == method ) {
+            throw new RuntimeException(new NoSuchMethodException(tried));
+        }
         try {
-            if (fieldDef.getArguments().size() > 0) {
-                return getMethodViaGetterUsingPrefix(object, args, null);
-            } else if (isBooleanMethod(outputType)) {
-                try {
-                    return getMethodViaGetterUsingPrefix(object, args, "is");
-                } catch (NoSuchMethodException ex) {
-                    return getMethodViaGetterUsingPrefix(object, args, "get");
-                }
-            } else {
-                return getMethodViaGetterUsingPrefix(object, args, "get");
+            return MethodHandles.publicLookup().unreflect(method)
+                .asType(null == argType ? GETTER_TYPE : ARGS_GETTER_TYPE);
+        } catch (IllegalAccessException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private String getterName(String prefix) {
+        if ( null == prefix ) return propertyName;
+        return prefix + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
+    }
+
+    private Method findMethod(Class<?> sourceClass, String methodName) {
+        try {
+            if ( null == argType ) {
+                return sourceClass.getMethod(methodName);
             }
+            return sourceClass.getMethod(methodName, argType);
         } catch (NoSuchMethodException ex) {
-            throw new RuntimeException(ex);
+            return null;
         }
     }
 
@@ -111,6 +237,14 @@ public class MethodDataFetcher implements DataFetcher {
             if ( Map.class.isAssignableFrom(result.getClass()) ) {
                 Class returnType = method.getReturnType();
                 if ( ! Map.class.isAssignableFrom(returnType) ) {
+                    MethodHandle fromMap = getFromMap(returnType);
+                    if ( null != fromMap ) {
+                        try {
+                            return fromMap.invokeExact((Map)result);
+                        } catch (Throwable ex) {
+                            throw new RuntimeException(ex);
+                        }
+                    }
                     return Proxy.newProxyInstance(
                         returnType.getClassLoader(),
                         new Class[]{returnType},
@@ -121,32 +255,6 @@ public class MethodDataFetcher implements DataFetcher {
         }
     }
 
-    private Object getMethodViaGetterUsingPrefix(Object object, Map<String, Object> args, String prefix)
-        throws NoSuchMethodException
-    {
-        String methodName;
-        if ( null == prefix ) {
-            methodName = propertyName;
-        } else {
-            methodName = prefix + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-        }
-        try {
-            Method method;
-            if ( null == argType ) {
-                method = object.getClass().getMethod(methodName);
-                return method.invoke(object);
-            }
-            method = object.getClass().getMethod(methodName, argType);
-            Object argsProxy =
-                Proxy.newProxyInstance(argType.getClassLoader(),
-                                       new Class[]{argType},
-                                       new MapInvocationHandler(args));
-            return method.invoke(object, argsProxy);
-        } catch (IllegalAccessException|InvocationTargetException ex) {
-            throw new RuntimeException(ex);
-        }
-    }
-
     private boolean isBooleanMethod(GraphQLOutputType outputType) {
         if (outputType == GraphQLBoolean) return true;
         if (outputType instanceof GraphQLNonNull) {
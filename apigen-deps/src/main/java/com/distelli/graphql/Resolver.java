@@ -1,7 +1,13 @@
 package com.distelli.graphql;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public interface Resolver<T> {
+public interface Resolver<T> extends AsyncResolver<T> {
     public List<T> resolve(List<T> unresolved);
+
+    @Override
+    public default CompletableFuture<List<T>> resolveAsync(List<T> unresolved) {
+        return CompletableFuture.completedFuture(resolve(unresolved));
+    }
 }
@@ -1,26 +1,75 @@
 package com.distelli.graphql;
 
+import graphql.execution.MergedField;
+import graphql.execution.MergedSelectionSet;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import graphql.execution.batched.Batched;
 import graphql.execution.batched.BatchedDataFetcher;
-import graphql.schema.DataFetchingEnvironmentImpl;
+import org.dataloader.DataLoader;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.lang.reflect.Method;
 
 public class ResolverDataFetcher implements DataFetcher {
     private DataFetcher fetcher;
-    private Resolver resolver;
+    private AsyncResolver resolver;
     private boolean isBatched;
     private int listDepth;
+    private String dataLoaderKey;
+    private Function<Object, Object> idFunction;
+    private FanOutExecutor fanOutExecutor;
+    private FetchListener fetchListener;
+    // Field indexes of the last FieldPresence type, see getRequiredFields():
+    private volatile FieldIndexes fieldIndexes;
     public ResolverDataFetcher(DataFetcher fetcher, Resolver resolver, int listDepth) {
+        this(fetcher, (AsyncResolver)resolver, listDepth, null);
+    }
+
+    public ResolverDataFetcher(DataFetcher fetcher, AsyncResolver resolver, int listDepth) {
+        this(fetcher, resolver, listDepth, null);
+    }
+
+    /**
+     * @param dataLoaderKey if the execution's DataLoaderRegistry contains a
+     *     DataLoader with this key, unresolved instances are queued in it so
+     *     they are resolved in a single batch per execution level. See
+     *     {@link ResolverDataLoaders}.
+     */
+    public ResolverDataFetcher(DataFetcher fetcher, AsyncResolver resolver, int listDepth, String dataLoaderKey) {
+        this(fetcher, resolver, listDepth, dataLoaderKey, null);
+    }
+
+    /**
+     * @param idFunction returns the id of an unresolved instance. Instances
+     *     with the same id are only passed to the resolver once, and with a
+     *     DataLoader the resolved instance is cached by id for the rest of
+     *     the execution.
+     */
+    public <T> ResolverDataFetcher(DataFetcher fetcher, AsyncResolver<T> resolver, int listDepth, String dataLoaderKey, Function<T, ?> idFunction) {
+        this(fetcher, resolver, listDepth, dataLoaderKey, idFunction, null);
+    }
+
+    /**
+     * @param fanOutExecutor if non-null and the fetcher is not batched, the
+     *     fetcher is called concurrently for each source of a batch.
+     */
+    public <T> ResolverDataFetcher(DataFetcher fetcher, AsyncResolver<T> resolver, int listDepth, String dataLoaderKey, Function<T, ?> idFunction, FanOutExecutor fanOutExecutor) {
         this.fetcher = fetcher;
+        this.fanOutExecutor = fanOutExecutor;
         this.resolver = resolver;
         this.listDepth = listDepth;
+        this.dataLoaderKey = dataLoaderKey;
+        this.idFunction = (Function<Object, Object>)idFunction;
         if ( fetcher instanceof BatchedDataFetcher ) {
             this.isBatched = true;
         } else {
@@ -34,33 +83,301 @@ public class ResolverDataFetcher implements DataFetcher {
         }
     }
 
+    // Copy with a listener, see ListeningDataFetcher.wrap():
+    private ResolverDataFetcher(ResolverDataFetcher src, FetchListener fetchListener) {
+        this.fetcher = src.fetcher;
+        this.resolver = src.resolver;
+        this.isBatched = src.isBatched;
+        this.listDepth = src.listDepth;
+        this.dataLoaderKey = src.dataLoaderKey;
+        this.idFunction = src.idFunction;
+        this.fanOutExecutor = src.fanOutExecutor;
+        this.fetchListener = fetchListener;
+    }
+
+    /**
+     * @return a copy of this fetcher which reports field and resolver
+     *     latencies to the listener.
+     */
+    public ResolverDataFetcher withFetchListener(FetchListener fetchListener) {
+        return new ResolverDataFetcher(this, fetchListener);
+    }
+
     @Batched
     @Override
     public Object get(DataFetchingEnvironment env) {
+        Object event = FetchEvents.begin();
+        if ( null == fetchListener && null == event ) return fetch(env, null);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = fetch(env, event);
+        } catch ( RuntimeException ex ) {
+            onFetch(env, start, event, ex);
+            throw ex;
+        }
+        if ( result instanceof CompletableFuture ) {
+            return ((CompletableFuture<?>)result).whenComplete(
+                (ignored, ex) -> onFetch(env, start, event, ex));
+        }
+        onFetch(env, start, event, null);
+        return result;
+    }
+
+    private void onFetch(DataFetchingEnvironment env, long start, Object event, Throwable error) {
+        if ( null != fetchListener ) ListeningDataFetcher.onFetch(fetchListener, env, start, error);
+        FetchEvents.commit(event, env);
+    }
+
+    private Object fetch(DataFetchingEnvironment env, Object event) {
         List<Object> unresolved = new ArrayList<>();
         Object result;
         int depth = listDepth;
-        if ( env.getSource() instanceof List ) { // batched.
+        boolean batched = env.getSource() instanceof List;
+        if ( batched ) {
             result = getBatched(env);
             if ( null != resolver ) addUnresolved(unresolved, result, ++depth);
         } else {
             result = getUnbatched(env);
             if ( null != resolver ) addUnresolved(unresolved, result, depth);
         }
-        if ( null == resolver ) return result;
-        return replaceResolved(result, resolver.resolve(unresolved).iterator(), depth);
+        if ( null == resolver ) {
+            FetchEvents.setResolved(event, listDepth, 0, resolver);
+            return result;
+        }
+        // Instances that already have every selected field are not resolved:
+        int[] missingIndexes = getMissingIndexes(env, unresolved);
+        List<Object> missing = unresolved;
+        if ( null != missingIndexes ) {
+            if ( 0 == missingIndexes.length ) {
+                FetchEvents.setResolved(event, listDepth, 0, resolver);
+                return result;
+            }
+            missing = new ArrayList<>(missingIndexes.length);
+            for ( int index : missingIndexes ) {
+                missing.add(unresolved.get(index));
+            }
+        }
+        FetchEvents.setResolved(event, listDepth, missing.size(), resolver);
+        CompletableFuture<List<Object>> resolved = null;
+        if ( ! batched ) {
+            DataLoader<Object, Object> dataLoader = getDataLoader(env);
+            if ( null != dataLoader ) resolved = loadMany(dataLoader, missing);
+        }
+        if ( null == resolved ) resolved = resolveUnique(missing, env);
+        int resolvedDepth = depth;
+        return resolved.thenApply((list) -> {
+                if ( null != missingIndexes ) {
+                    List<Object> merged = new ArrayList<>(unresolved);
+                    for ( int i=0; i < missingIndexes.length; i++ ) {
+                        merged.set(missingIndexes[i], list.get(i));
+                    }
+                    list = merged;
+                }
+                return replaceResolved(result, list.iterator(), resolvedDepth);
+            });
+    }
+
+    /**
+     * @return the indexes of unresolved instances that are null or missing a
+     *     selected field (see {@link FieldPresence}), or null if that is all
+     *     of them.
+     */
+    private int[] getMissingIndexes(DataFetchingEnvironment env, List<Object> unresolved) {
+        int[] indexes = new int[unresolved.size()];
+        int size = 0;
+        List<String> selected = null;
+        List<String> fieldNames = null;
+        long required = -1;
+        for ( int i=0; i < indexes.length; i++ ) {
+            Object elm = unresolved.get(i);
+            if ( null == elm ) continue;
+            if ( elm instanceof FieldPresence ) {
+                FieldPresence presence = (FieldPresence)elm;
+                if ( fieldNames != presence.getFieldPresenceNames() ) {
+                    fieldNames = presence.getFieldPresenceNames();
+                    if ( null == selected ) selected = getSelectedFields(env);
+                    required = getRequiredFields(fieldNames, selected);
+                }
+                if ( -1 != required && required == (presence.getFieldPresence() & required) ) continue;
+            }
+            indexes[size++] = i;
+        }
+        if ( size == indexes.length ) return null;
+        return Arrays.copyOf(indexes, size);
+    }
+
+    // Names of the fields directly selected, or null if unknown:
+    private static List<String> getSelectedFields(DataFetchingEnvironment env) {
+        DataFetchingFieldSelectionSet selectionSet = env.getSelectionSet();
+        MergedSelectionSet selected = ( null == selectionSet ) ? null : selectionSet.get();
+        if ( null == selected ) return null;
+        List<String> names = new ArrayList<>();
+        // Keys of nested selections are qualified by their parent field:
+        for ( Map.Entry<String, MergedField> entry : selected.getSubFields().entrySet() ) {
+            if ( entry.getKey().indexOf('/') < 0 ) names.add(entry.getValue().getName());
+        }
+        return names;
+    }
+
+    // Returns a bitset of the selected fields, -1 if unknown:
+    private long getRequiredFields(List<String> fieldNames, List<String> selected) {
+        if ( null == fieldNames || null == selected ) return -1;
+        FieldIndexes indexes = fieldIndexes;
+        if ( null == indexes || indexes.fieldNames != fieldNames ) {
+            fieldIndexes = indexes = new FieldIndexes(fieldNames);
+        }
+        long required = 0;
+        for ( String name : selected ) {
+            if ( name.startsWith("__") ) continue;
+            Integer index = indexes.indexes.get(name);
+            if ( null == index || index >= 63 ) return -1;
+            required |= 1L << index;
+        }
+        return required;
     }
 
+    private static class FieldIndexes {
+        private final List<String> fieldNames;
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private FieldIndexes(List<String> fieldNames) {
+            this.fieldNames = fieldNames;
+            for ( String name : fieldNames ) {
+                indexes.put(name, indexes.size());
+            }
+        }
+    }
+
+    // Collapse instances with the same id so each id is only resolved once,
+    // then fan the results back out in the original order:
+    private CompletableFuture<List<Object>> resolveUnique(List<Object> unresolved, DataFetchingEnvironment env) {
+        if ( null == idFunction ) return resolveBatch(unresolved, env);
+        Map<Object, Integer> uniqueIndexes = new HashMap<>();
+        List<Object> unique = new ArrayList<>();
+        int[] indexes = new int[unresolved.size()];
+        for ( int i=0; i < indexes.length; i++ ) {
+            Object elm = unresolved.get(i);
+            Object id = ( null == elm ) ? null : idFunction.apply(elm);
+            Integer index = ( null == id ) ? null : uniqueIndexes.get(id);
+            if ( null == index ) {
+                index = unique.size();
+                unique.add(elm);
+                if ( null != id ) uniqueIndexes.put(id, index);
+            }
+            indexes[i] = index;
+        }
+        if ( unique.size() == indexes.length ) return resolveBatch(unresolved, env);
+        CompletableFuture<List<Object>> resolved = resolveBatch(unique, env);
+        return resolved.thenApply((list) -> {
+                List<Object> result = new ArrayList<>(indexes.length);
+                for ( int index : indexes ) {
+                    result.add(list.get(index));
+                }
+                return result;
+            });
+    }
+
+    // The ResolverDataLoaders batch function, a batch may span many fields
+    // so there is no environment (or selection) to pass on:
+    CompletableFuture<List<Object>> resolveBatch(List<Object> unresolved) {
+        return resolveBatch(unresolved, null);
+    }
+
+    private CompletableFuture<List<Object>> resolveBatch(List<Object> unresolved, DataFetchingEnvironment env) {
+        if ( null == fetchListener ) return resolveAsync(unresolved, env);
+        long start = System.nanoTime();
+        String typeName = ( null == dataLoaderKey ) ? resolver.getClass().getName() : dataLoaderKey;
+        try {
+            CompletableFuture<List<Object>> resolved = resolveAsync(unresolved, env);
+            return resolved.whenComplete(
+                (ignored, ex) -> fetchListener.onResolve(typeName, unresolved.size(), System.nanoTime() - start, ex));
+        } catch ( RuntimeException ex ) {
+            fetchListener.onResolve(typeName, unresolved.size(), System.nanoTime() - start, ex);
+            throw ex;
+        }
+    }
+
+    private CompletableFuture<List<Object>> resolveAsync(List<Object> unresolved, DataFetchingEnvironment env) {
+        return ( null == env )
+            ? resolver.resolveAsync(unresolved)
+            : resolver.resolveAsync(unresolved, env);
+    }
+
+    private DataLoader<Object, Object> getDataLoader(DataFetchingEnvironment env) {
+        if ( null == resolver || null == dataLoaderKey ) return null;
+        return env.getDataLoader(dataLoaderKey);
+    }
+
+    // DataLoader does not allow null keys, these are resolved to null:
+    private CompletableFuture<List<Object>> loadMany(DataLoader<Object, Object> dataLoader, List<Object> unresolved) {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(unresolved.size());
+        for ( Object elm : unresolved ) {
+            futures.add(( null == elm ) ? CompletableFuture.completedFuture(null) : dataLoader.load(elm));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+            .thenApply((ignored) -> {
+                    List<Object> resolved = new ArrayList<>(futures.size());
+                    for ( CompletableFuture<Object> future : futures ) {
+                        resolved.add(future.join());
+                    }
+                    return resolved;
+                });
+    }
+
+    public AsyncResolver getResolver() {
+        return resolver;
+    }
+
+    public String getDataLoaderKey() {
+        return dataLoaderKey;
+    }
+
+    public Function<Object, Object> getIdFunction() {
+        return idFunction;
+    }
+
+    public FanOutExecutor getFanOutExecutor() {
+        return fanOutExecutor;
+    }
+
+    public FetchListener getFetchListener() {
+        return fetchListener;
+    }
+
+    // The nested lists are walked with an explicit stack of (list, index)
+    // pairs sized to the depth, so no per level iterators or recursion are
+    // needed. The flattened unresolved list is the only backing store.
     public Object replaceResolved(Object result, Iterator<Object> resolved, int depth) {
         if ( depth <= 0 ) {
             return resolved.next();
         }
-        List<Object> resolvedResults = new ArrayList<>();
         if ( null == result ) return null;
-        for ( Object elm : (List)result ) {
-            resolvedResults.add(replaceResolved(elm, resolved, depth-1));
+        List[] lists = new List[depth];
+        List[] resolvedLists = new List[depth];
+        int[] indexes = new int[depth];
+        int level = 0;
+        lists[0] = toRandomAccess((List)result);
+        resolvedLists[0] = new ArrayList<>(lists[0].size());
+        while ( true ) {
+            List list = lists[level];
+            if ( indexes[level] >= list.size() ) {
+                if ( 0 == level ) return resolvedLists[0];
+                List done = resolvedLists[level];
+                resolvedLists[--level].add(done);
+                continue;
+            }
+            Object elm = list.get(indexes[level]++);
+            if ( level == depth-1 ) {
+                resolvedLists[level].add(resolved.next());
+            } else if ( null == elm ) {
+                resolvedLists[level].add(null);
+            } else {
+                List child = toRandomAccess((List)elm);
+                lists[++level] = child;
+                resolvedLists[level] = new ArrayList<>(child.size());
+                indexes[level] = 0;
+            }
         }
-        return resolvedResults;
     }
 
     public void addUnresolved(List<Object> unresolved, Object result, int depth) {
@@ -68,29 +385,55 @@ public class ResolverDataFetcher implements DataFetcher {
             unresolved.add(result);
             return;
         }
+        List[] lists = new List[depth];
+        int[] indexes = new int[depth];
+        int level = 0;
+        lists[0] = toList(result);
+        if ( null == lists[0] ) return;
+        if ( 1 == depth ) {
+            unresolved.addAll(lists[0]);
+            return;
+        }
+        while ( level >= 0 ) {
+            List list = lists[level];
+            if ( indexes[level] >= list.size() ) {
+                level--;
+                continue;
+            }
+            Object elm = list.get(indexes[level]++);
+            if ( level == depth-1 ) {
+                unresolved.add(elm);
+                continue;
+            }
+            List child = toList(elm);
+            if ( null == child ) continue;
+            lists[++level] = child;
+            indexes[level] = 0;
+        }
+    }
+
+    private List toList(Object result) {
         if ( ! (result instanceof List) ) {
-            if ( null == result ) return;
+            if ( null == result ) return null;
             throw new IllegalStateException("Fetcher "+fetcher+" expected to return a List for each result, got="+result);
         }
-        for ( Object elm : (List)result ) {
-            addUnresolved(unresolved, elm, depth-1);
-        }
+        return toRandomAccess((List)result);
+    }
+
+    private static List toRandomAccess(List list) {
+        return ( list instanceof RandomAccess ) ? list : new ArrayList<>(list);
     }
 
     public Object getUnbatched(DataFetchingEnvironment env) {
         if ( ! isBatched ) {
             try {
-                return fetcher.get(env);
+                return fetchInner(env);
             } catch (Exception e) {
                 throw new IllegalStateException(e);
             }
         }
-        DataFetchingEnvironmentImpl.Builder builder = DataFetchingEnvironmentImpl.newDataFetchingEnvironment(env);
-
-        DataFetchingEnvironment envCopy = builder.build();
-
         try {
-            Object result = fetcher.get(envCopy);
+            Object result = fetchInner(env);
             if ( !(result instanceof List) || ((List)result).size() != 1 ) {
                 throw new IllegalStateException("Batched fetcher "+fetcher+" expected to return list of 1");
             }
@@ -104,7 +447,7 @@ public class ResolverDataFetcher implements DataFetcher {
         List sources = env.getSource();
         if ( isBatched ) {
             try {
-                Object result = fetcher.get(env);
+                Object result = fetchInner(env);
                 if ( !(result instanceof List) || ((List)result).size() != sources.size() ) {
                     throw new IllegalStateException("Batched fetcher "+fetcher+" expected to return list of "+sources.size());
                 }
@@ -113,14 +456,19 @@ public class ResolverDataFetcher implements DataFetcher {
                 throw new IllegalStateException(e);
             }
         }
-        List<Object> result = new ArrayList<>();
+        if ( null != fanOutExecutor && sources.size() > 1 ) {
+            return fanOutExecutor.invokeAll(sources.size(), (index) -> {
+                    try {
+                        return fetchInner(new SourceDataFetchingEnvironment(env, sources.get(index)));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+        }
+        List<Object> result = new ArrayList<>(sources.size());
         for ( Object source : sources ) {
-            DataFetchingEnvironmentImpl.Builder builder = DataFetchingEnvironmentImpl.newDataFetchingEnvironment(env);
-            builder.source(source);
-            DataFetchingEnvironment envCopy = builder.build();
-
             try {
-                result.add(fetcher.get(envCopy));
+                result.add(fetchInner(new SourceDataFetchingEnvironment(env, source)));
             } catch (Exception e) {
                 throw new IllegalStateException(e);
             }
@@ -128,6 +476,13 @@ public class ResolverDataFetcher implements DataFetcher {
         return result;
     }
 
+    // A wrapped MethodDataFetcher is called without its FieldFetch event, so
+    // each field is only recorded once (by get()):
+    private Object fetchInner(DataFetchingEnvironment env) throws Exception {
+        if ( fetcher instanceof MethodDataFetcher ) return ((MethodDataFetcher)fetcher).fetch(env);
+        return fetcher.get(env);
+    }
+
     @Override
     public String toString() {
         return "ResolverDataFetcher{"+
@@ -135,6 +490,9 @@ public class ResolverDataFetcher implements DataFetcher {
             ", fetcher="+fetcher+
             ", isBatched="+isBatched+
             ", listDepth="+listDepth+
+            ", dataLoaderKey="+dataLoaderKey+
+            ", fanOutExecutor="+fanOutExecutor+
+            ", fetchListener="+fetchListener+
             "}";
     }
 }
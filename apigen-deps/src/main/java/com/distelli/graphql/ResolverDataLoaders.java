@@ -0,0 +1,79 @@
+package com.distelli.graphql;
+
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+
+/**
+ * Finds every {@link ResolverDataFetcher} in a schema so a request scoped
+ * {@link DataLoaderRegistry} can be created which batches all the
+ * unresolved instances of a type at the same execution level into a
+ * single {@link AsyncResolver#resolveAsync(List)} call.
+ *
+ * If the ResolverDataFetcher has an id function, the DataLoader caches by
+ * id, so duplicate ids are only resolved once per request and ids resolved
+ * earlier in the same request are not resolved again.
+ *
+ * Create one instance per schema, then for every request:
+ *
+ * <pre>
+ *   graphQL.execute(ExecutionInput.newExecutionInput()
+ *       .query(query)
+ *       .dataLoaderRegistry(resolverDataLoaders.newDataLoaderRegistry()));
+ * </pre>
+ */
+public class ResolverDataLoaders {
+    private final Map<String, ResolverDataFetcher> fetchers = new LinkedHashMap<>();
+
+    public ResolverDataLoaders(GraphQLSchema schema) {
+        for ( GraphQLType type : schema.getAllTypesAsList() ) {
+            if ( ! (type instanceof GraphQLObjectType) ) continue;
+            GraphQLObjectType objectType = (GraphQLObjectType)type;
+            for ( GraphQLFieldDefinition fieldDef : objectType.getFieldDefinitions() ) {
+                DataFetcher fetcher = schema.getCodeRegistry().getDataFetcher(objectType, fieldDef);
+                if ( ! (fetcher instanceof ResolverDataFetcher) ) continue;
+                ResolverDataFetcher resolverFetcher = (ResolverDataFetcher)fetcher;
+                if ( null == resolverFetcher.getDataLoaderKey() ||
+                     null == resolverFetcher.getResolver() )
+                {
+                    continue;
+                }
+                fetchers.putIfAbsent(resolverFetcher.getDataLoaderKey(), resolverFetcher);
+            }
+        }
+    }
+
+    /**
+     * @return a new registry with one DataLoader per resolver. A new registry
+     *     must be created for every request, since it caches resolved
+     *     instances.
+     */
+    public DataLoaderRegistry newDataLoaderRegistry() {
+        DataLoaderRegistry registry = new DataLoaderRegistry();
+        for ( Map.Entry<String, ResolverDataFetcher> entry : fetchers.entrySet() ) {
+            ResolverDataFetcher fetcher = entry.getValue();
+            Function<Object, Object> idFunction = fetcher.getIdFunction();
+            DataLoaderOptions options = DataLoaderOptions.newOptions()
+                .setCachingEnabled(null != idFunction);
+            if ( null != idFunction ) {
+                options.setCacheKeyFunction((unresolved) -> {
+                        Object id = idFunction.apply(unresolved);
+                        return ( null == id ) ? unresolved : id;
+                    });
+            }
+            registry.register(
+                entry.getKey(),
+                DataLoader.newDataLoader((List<Object> keys) -> fetcher.resolveBatch(keys), options));
+        }
+        return registry;
+    }
+}
@@ -0,0 +1,70 @@
+package com.distelli.graphql;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of canonical instances, so equal immutable instances may share a
+ * single copy. The pool only weakly references its instances, so an
+ * instance is dropped from the pool once it is no longer used elsewhere.
+ *
+ * The pool is split into stripes, each with its own lock. The generated
+ * types have a static intern() method which uses a pool per type:
+ *
+ * <pre>
+ *   Post post = Post.intern(new Post.Builder().withTitle("GraphQL Rocks").build());
+ * </pre>
+ */
+public class WeakInterner<T> {
+    private static final int NUM_STRIPES = 16;
+
+    private final Map<T, WeakReference<T>>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public WeakInterner() {
+        stripes = new Map[NUM_STRIPES];
+        for ( int i=0; i < NUM_STRIPES; i++ ) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * @param value the instance to intern, it must not be mutated after
+     *     being interned.
+     *
+     * @return the pooled instance equal to value, or value itself (which is
+     *     added to the pool) if there is none.
+     */
+    public T intern(T value) {
+        if ( null == value ) return null;
+        Map<T, WeakReference<T>> stripe = getStripe(value);
+        synchronized ( stripe ) {
+            WeakReference<T> ref = stripe.get(value);
+            T interned = ( null == ref ) ? null : ref.get();
+            if ( null != interned ) return interned;
+            stripe.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * @return the number of pooled instances, which includes instances that
+     *     have not been reclaimed yet.
+     */
+    public int size() {
+        int size = 0;
+        for ( Map<T, WeakReference<T>> stripe : stripes ) {
+            synchronized ( stripe ) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Map<T, WeakReference<T>> getStripe(T value) {
+        int hash = value.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
@@ -2,6 +2,8 @@ package com.distelli.graphql.apigen;
 
 import graphql.language.Definition;
 import graphql.language.Document;
+import graphql.language.OperationTypeDefinition;
+import graphql.language.ScalarTypeDefinition;
 import graphql.language.SchemaDefinition;
 import graphql.language.TypeDefinition;
 import graphql.parser.Parser;
@@ -10,11 +12,13 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import org.stringtemplate.v4.STGroup;
 import org.stringtemplate.v4.STGroupFile;
@@ -28,15 +32,20 @@ public class ApiGen {
     private STGroup stGroup;
     private String guiceModuleName;
     private String defaultPackageName;
+    private boolean typedDataFetchers;
+    private boolean generateSchema;
     private Map<String, TypeEntry> generatedTypes = new LinkedHashMap<>();
     private Map<String, TypeEntry> referenceTypes = new HashMap<>();
     private List<TypeEntry> schemaDefinitions = new ArrayList<>();
+    private List<String> generatorNames;
 
     public static class Builder {
         private Path outputDirectory;
         private STGroup stGroup;
         private String guiceModuleName;
         private String defaultPackageName;
+        private boolean typedDataFetchers;
+        private boolean generateSchema;
 
         /**
          * (required)
@@ -72,6 +81,33 @@ public class ApiGen {
             return this;
         }
 
+        /**
+         * @param typedDataFetchers if true, the generated TypeProviders wire
+         *        fields without arguments to DataFetchers that call the typed
+         *        getter directly. MethodDataFetcher is only used as a fallback
+         *        when the source does not implement the generated interface.
+         *
+         * @return this
+         */
+        public Builder withTypedDataFetchers(boolean typedDataFetchers) {
+            this.typedDataFetchers = typedDataFetchers;
+            return this;
+        }
+
+        /**
+         * @param generateSchema if true (and a guiceModuleName is given), a
+         *        class named guiceModuleName + "Schema" is generated which
+         *        builds the GraphQLSchema of all types once. The root types
+         *        are taken from the schema definition, or default to the
+         *        types named Query, Mutation and Subscription.
+         *
+         * @return this
+         */
+        public Builder withGenerateSchema(boolean generateSchema) {
+            this.generateSchema = generateSchema;
+            return this;
+        }
+
         /**
          * Create a new instances of ApiGen with the built parameters.
          *
@@ -90,6 +126,8 @@ public class ApiGen {
         }
         guiceModuleName = builder.guiceModuleName;
         defaultPackageName = builder.defaultPackageName;
+        typedDataFetchers = builder.typedDataFetchers;
+        generateSchema = builder.generateSchema;
         outputDirectory = builder.outputDirectory;
         stGroup = ( null == builder.stGroup )
             ? getDefaultSTGroup()
@@ -172,47 +210,74 @@ public class ApiGen {
      * @throws IOException if an io error occurs.
      */
     public void generate() throws IOException {
-        Set<String> generatorNames = new TreeSet<String>();
-        for ( String name : stGroup.getTemplateNames() ) {
-            if ( ! name.endsWith("FileName") ) continue;
-            String generatorName = name.substring(0, name.length() - "FileName".length());
-            if ( ! stGroup.isDefined(generatorName + "Generator") ) continue;
-            generatorNames.add(generatorName);
-        }
-
-        List<TypeEntry> allEntries = new ArrayList(generatedTypes.values());
-        allEntries.addAll(schemaDefinitions);
+        Map<String, List<String>> unionsByMember = getUnionsByMember();
         StringBuilder moduleBuilder = new StringBuilder();
-        for ( TypeEntry entry : allEntries ) {
+        for ( TypeEntry entry : getGenerationEntries() ) {
             try {
-                STModel model = new STModel.Builder()
-                    .withTypeEntry(entry)
-                    .withReferenceTypes(referenceTypes)
-                    .build();
-                model.validate();
-
-                Path directory = getDirectory(entry.getPackageName());
-                for ( String generatorName : generatorNames ) {
-                    String fileName = stGroup.getInstanceOf(generatorName+"FileName")
-                        .add("model", model)
-                        .render();
-                    if ( "".equals(fileName) || null == fileName ) continue;
-                    String content = stGroup.getInstanceOf(generatorName+"Generator")
-                        .add("model", model)
-                        .render();
-                    if ( stGroup.isDefined(generatorName + "GuiceModule") ) {
-                        moduleBuilder.append(stGroup.getInstanceOf(generatorName+"GuiceModule")
-                                             .add("model", model)
-                                             .render());
-                    }
-                    writeFile(Paths.get(directory.toString(), fileName),
-                              content);
+                STModel model = buildModel(entry, unionsByMember);
+                for ( Map.Entry<Path, String> file : render(model, moduleBuilder).entrySet() ) {
+                    writeFile(file.getKey(), file.getValue());
                 }
             } catch ( Exception ex ) {
                 throw new RuntimeException(ex.getMessage() + " when generating code from '" +
                                            entry.getSource() + "'", ex);
             }
         }
+        for ( Map.Entry<Path, String> file : renderModule(moduleBuilder).entrySet() ) {
+            writeFile(file.getKey(), file.getValue());
+        }
+    }
+
+    // The phases of generate() are package visible so they can be benchmarked
+    // separately. Every type (and schema definition) added for generation:
+    List<TypeEntry> getGenerationEntries() {
+        List<TypeEntry> entries = new ArrayList<>(generatedTypes.values());
+        entries.addAll(schemaDefinitions);
+        return entries;
+    }
+
+    Map<String, List<String>> getUnionsByMember() {
+        return STModel.getUnionsByMember(referenceTypes.values());
+    }
+
+    STModel buildModel(TypeEntry entry, Map<String, List<String>> unionsByMember) {
+        STModel model = new STModel.Builder()
+            .withTypeEntry(entry)
+            .withReferenceTypes(referenceTypes)
+            .withTypedDataFetchers(typedDataFetchers)
+            .withUnionsByMember(unionsByMember)
+            .build();
+        model.validate();
+        return model;
+    }
+
+    // Renders the files of a model keyed by path, and appends its guice
+    // bindings to moduleBuilder:
+    Map<Path, String> render(STModel model, StringBuilder moduleBuilder) {
+        Map<Path, String> files = new LinkedHashMap<>();
+        Path directory = null;
+        for ( String generatorName : getGeneratorNames() ) {
+            String fileName = stGroup.getInstanceOf(generatorName+"FileName")
+                .add("model", model)
+                .render();
+            if ( "".equals(fileName) || null == fileName ) continue;
+            String content = stGroup.getInstanceOf(generatorName+"Generator")
+                .add("model", model)
+                .render();
+            if ( stGroup.isDefined(generatorName + "GuiceModule") ) {
+                moduleBuilder.append(stGroup.getInstanceOf(generatorName+"GuiceModule")
+                                     .add("model", model)
+                                     .render());
+            }
+            if ( null == directory ) directory = getDirectory(model.getPackageName());
+            files.put(Paths.get(directory.toString(), fileName), content);
+        }
+        return files;
+    }
+
+    // Renders the guice module and schema class (if enabled) keyed by path:
+    Map<Path, String> renderModule(StringBuilder moduleBuilder) {
+        Map<Path, String> files = new LinkedHashMap<>();
         if ( moduleBuilder.length() > 0 && guiceModuleName != null && stGroup.isDefined("guiceModule") ) {
             PackageClassName packageClassName = getPackageClassName(guiceModuleName);
             String content = stGroup.getInstanceOf("guiceModule")
@@ -220,10 +285,74 @@ public class ApiGen {
                 .add("className", packageClassName.className)
                 .add("configure", moduleBuilder.toString())
                 .render();
-            writeFile(Paths.get(getDirectory(packageClassName.packageName).toString(),
+            files.put(Paths.get(getDirectory(packageClassName.packageName).toString(),
+                                packageClassName.className+".java"),
+                      content);
+        }
+        if ( generateSchema && guiceModuleName != null && stGroup.isDefined("schemaClass") ) {
+            PackageClassName packageClassName = getPackageClassName(guiceModuleName + "Schema");
+            String content = stGroup.getInstanceOf("schemaClass")
+                .add("packageName", packageClassName.packageName)
+                .add("className", packageClassName.className)
+                .add("types", getSchemaTypes())
+                .add("operations", getOperations())
+                .render();
+            files.put(Paths.get(getDirectory(packageClassName.packageName).toString(),
                                 packageClassName.className+".java"),
                       content);
         }
+        return files;
+    }
+
+    // Every <name>FileName template with a <name>Generator template:
+    private synchronized List<String> getGeneratorNames() {
+        if ( null == generatorNames ) {
+            Set<String> names = new TreeSet<String>();
+            for ( String name : stGroup.getTemplateNames() ) {
+                if ( ! name.endsWith("FileName") ) continue;
+                String generatorName = name.substring(0, name.length() - "FileName".length());
+                if ( ! stGroup.isDefined(generatorName + "Generator") ) continue;
+                names.add(generatorName);
+            }
+            generatorNames = new ArrayList<>(names);
+        }
+        return generatorNames;
+    }
+
+    // Every type with a TypeProvider, including the types added for reference:
+    private List<TypeEntry> getSchemaTypes() {
+        List<TypeEntry> types = new ArrayList<>();
+        for ( TypeEntry entry : new TreeMap<>(referenceTypes).values() ) {
+            if ( entry.getDefinition() instanceof ScalarTypeDefinition ) continue;
+            types.add(entry);
+        }
+        return types;
+    }
+
+    private Map<String, String> getOperations() {
+        Map<String, String> operations = new LinkedHashMap<>();
+        for ( TypeEntry entry : schemaDefinitions ) {
+            SchemaDefinition def = (SchemaDefinition)entry.getDefinition();
+            for ( OperationTypeDefinition opDef : def.getOperationTypeDefinitions() ) {
+                operations.put(opDef.getName(), opDef.getTypeName().getName());
+            }
+        }
+        if ( operations.isEmpty() ) {
+            for ( String name : Arrays.asList("Query", "Mutation", "Subscription") ) {
+                if ( referenceTypes.containsKey(name) ) operations.put(name.toLowerCase(), name);
+            }
+        }
+        if ( ! operations.containsKey("query") ) {
+            throw new RuntimeException(
+                "Generating the schema requires a schema definition with a query type or a type named 'Query'");
+        }
+        for ( String typeName : operations.values() ) {
+            TypeEntry entry = referenceTypes.get(typeName);
+            if ( null == entry || entry.getDefinition() instanceof ScalarTypeDefinition ) {
+                throw new RuntimeException("Unknown type '"+typeName+"' was not defined in the schema");
+            }
+        }
+        return operations;
     }
 
     private static class PackageClassName {
@@ -252,7 +381,7 @@ public class ApiGen {
         return scan.hasNext() ? scan.next() : "";
     }
 
-    private void writeFile(Path path, String content) throws IOException {
+    void writeFile(Path path, String content) throws IOException {
         path.getParent().toFile().mkdirs();
         Files.write(path, content.getBytes(UTF_8));
     }
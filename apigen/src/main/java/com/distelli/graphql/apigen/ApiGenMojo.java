@@ -48,6 +48,12 @@ public class ApiGenMojo extends AbstractMojo {
     @Parameter(name="defaultPackageName", defaultValue = "com.graphql.generated")
     private String defaultPackageName;
 
+    @Parameter(name="typedDataFetchers", defaultValue="false")
+    private boolean typedDataFetchers;
+
+    @Parameter(name="generateSchema", defaultValue="false")
+    private boolean generateSchema;
+
     private File makeAbsolute(File in) {
         if ( in.isAbsolute() ) return in;
         return new File(project.getBasedir(), in.toString());
@@ -85,6 +91,8 @@ public class ApiGenMojo extends AbstractMojo {
                 .withOutputDirectory(outputDirectory.toPath())
                 .withGuiceModuleName(guiceModuleName)
                 .withDefaultPackageName(defaultPackageName)
+                .withTypedDataFetchers(typedDataFetchers)
+                .withGenerateSchema(generateSchema)
                 .build();
             PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(cp);
             for ( org.springframework.core.io.Resource resource : resolver.getResources("classpath*:graphql-apigen-schema/*.graphql{,s}") ) {
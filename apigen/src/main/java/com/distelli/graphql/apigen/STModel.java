@@ -50,6 +50,8 @@ public class STModel {
     public static class Builder {
         private TypeEntry typeEntry;
         private Map<String, TypeEntry> referenceTypes;
+        private boolean typedDataFetchers;
+        private Map<String, List<String>> unionsByMember;
         public Builder withTypeEntry(TypeEntry typeEntry) {
             this.typeEntry = typeEntry;
             return this;
@@ -58,19 +60,77 @@ public class STModel {
             this.referenceTypes = referenceTypes;
             return this;
         }
+        public Builder withTypedDataFetchers(boolean typedDataFetchers) {
+            this.typedDataFetchers = typedDataFetchers;
+            return this;
+        }
+        /**
+         * @param unionsByMember as returned by getUnionsByMember(), so the
+         *     unions of each object type are not searched for each model.
+         */
+        public Builder withUnionsByMember(Map<String, List<String>> unionsByMember) {
+            this.unionsByMember = unionsByMember;
+            return this;
+        }
         public STModel build() {
             return new STModel(this);
         }
     }
 
+    private static Map<String, String> PRIMITIVE_KEYS = new HashMap<String, String>(){{
+            put("Int", "int");
+            put("Long", "long");
+        }};
+    // Builtin scalar to {BinaryCodec method suffix, wire type}:
+    private static Map<String, String[]> CODECS = new HashMap<String, String[]>(){{
+            put("Int", new String[]{"Int", "VARINT"});
+            put("Long", new String[]{"Long", "VARINT"});
+            put("Float", new String[]{"Double", "FIXED64"});
+            put("String", new String[]{"String", "BYTES"});
+            put("Boolean", new String[]{"Boolean", "VARINT"});
+            put("ID", new String[]{"String", "BYTES"});
+            put("BigInteger", new String[]{"BigInteger", "BYTES"});
+            put("BigDecimal", new String[]{"BigDecimal", "BYTES"});
+            put("Byte", new String[]{"Byte", "VARINT"});
+            put("Short", new String[]{"Short", "VARINT"});
+            put("Char", new String[]{"Character", "VARINT"});
+        }};
+    private static Map<String, String> PRIMITIVES = new HashMap<String, String>(){{
+            put("Int", "int");
+            put("Long", "long");
+            put("Float", "double");
+            put("Boolean", "boolean");
+        }};
     public static class DataResolver {
         public String fieldName;
         public String fieldType;
+        public String asyncFieldName;
+        public String asyncFieldType;
+        public String keyedFieldName;
+        public String keyedFieldType;
+        // Only set if the id field is Int! or Long!
+        public String primitiveKeyedFieldName;
+        public String primitiveKeyedFieldType;
+        public String dataLoaderKey;
+        public String idFunction;
         public int listDepth;
     }
 
     public static class Interface {
         public String type;
+        // The GraphQL interface name, null for unions (which are only
+        // implemented by the java type).
+        public String graphQLName;
+    }
+
+    // Object type that may be the value of an interface or union:
+    public static class PossibleType {
+        public String name;
+        public String javaClass;
+        public PossibleType(String name, String javaClass) {
+            this.name = name;
+            this.javaClass = javaClass;
+        }
     }
 
     public static class Arg {
@@ -78,6 +138,9 @@ public class STModel {
         public String type;
         public String graphQLType;
         public String defaultValue;
+        // Java expression that converts the graphql-java argument value into
+        // the java type.
+        public String fromMap;
         public Arg(String name, String type) {
             this.name = name;
             this.type = type;
@@ -94,6 +157,25 @@ public class STModel {
         public String graphQLType;
         public List<Arg> args;
         public String defaultValue;
+        // Java expression that converts the input object field value into
+        // the java type.
+        public String fromMap;
+        // Bit of this field in the FieldPresence bitset of object types, null
+        // if the field is not tracked.
+        public String presenceMask;
+        // The *.Selection class of object type fields, null for other fields.
+        public String selectionType;
+        // True if the *Args have a getSelection() method.
+        public boolean argsSelection;
+        // The java primitive used to store non-null Int, Long, Float and
+        // Boolean fields of object types with FieldPresence, null for other
+        // fields.
+        public String primitiveType;
+        // The BinaryCodec wire type, Writer and Reader of the field, null if
+        // the field is not encoded (for example interface types).
+        public String codecWireType;
+        public String codecWriter;
+        public String codecReader;
         public Field(String name, String type) {
             this.name = name;
             this.type = type;
@@ -101,17 +183,47 @@ public class STModel {
         public String getUcname() {
             return ucFirst(name);
         }
+        /**
+         * @return the suffix of the primitive getter, for example "Int" for
+         *     getIdAsInt(), null if not stored as a primitive.
+         */
+        public String getPrimitiveName() {
+            return ( null == primitiveType ) ? null : ucFirst(primitiveType);
+        }
+        public String getPrimitiveDefault() {
+            return "boolean".equals(primitiveType) ? "false" : "0";
+        }
     }
     private TypeEntry typeEntry;
     private Map<String, TypeEntry> referenceTypes;
+    private Map<String, List<String>> unionsByMember;
     private List<Field> fields;
     public List<Interface> interfaces;
     private List<String> imports;
     private Field idField;
     private boolean gotIdField = false;
+    private boolean typedDataFetchers;
     private STModel(Builder builder) {
         this.typeEntry = builder.typeEntry;
         this.referenceTypes = builder.referenceTypes;
+        this.typedDataFetchers = builder.typedDataFetchers;
+        this.unionsByMember = builder.unionsByMember;
+    }
+
+    /**
+     * @return the names of the unions each object type is a member of, keyed
+     *     by the object type name.
+     */
+    public static Map<String, List<String>> getUnionsByMember(Collection<TypeEntry> types) {
+        Map<String, List<String>> unionsByMember = new HashMap<>();
+        for ( TypeEntry entry : types ) {
+            if ( !(entry.getDefinition() instanceof UnionTypeDefinition) ) continue;
+            for ( Type memberType : ((UnionTypeDefinition)entry.getDefinition()).getMemberTypes() ) {
+                unionsByMember.computeIfAbsent(((TypeName)memberType).getName(), (key) -> new ArrayList<>())
+                    .add(entry.getName());
+            }
+        }
+        return unionsByMember;
     }
 
     public void validate() {
@@ -152,6 +264,10 @@ public class STModel {
         return typeEntry.getDefinition() instanceof SchemaDefinition;
     }
 
+    public boolean isTypedDataFetchers() {
+        return typedDataFetchers;
+    }
+
     public String getPackageName() {
         return typeEntry.getPackageName();
     }
@@ -187,6 +303,31 @@ public class STModel {
         return idField;
     }
 
+    /**
+     * @return "Int" or "Long" if the id field of this type is Int! or Long!
+     *     (so a primitive keyed resolver can be used), otherwise null.
+     */
+    public String getPrimitiveKeyName() {
+        return getPrimitiveKeyName(typeEntry);
+    }
+
+    public String getPrimitiveKeyType() {
+        return PRIMITIVE_KEYS.get(getPrimitiveKeyName());
+    }
+
+    private static String getPrimitiveKeyName(TypeEntry typeEntry) {
+        if ( !(typeEntry.getDefinition() instanceof ObjectTypeDefinition) ) return null;
+        for ( FieldDefinition fieldDef : ((ObjectTypeDefinition)typeEntry.getDefinition()).getFieldDefinitions() ) {
+            if ( ! "id".equals(fieldDef.getName()) ) continue;
+            if ( !(fieldDef.getType() instanceof NonNullType) ) return null;
+            Type type = ((NonNullType)fieldDef.getType()).getType();
+            if ( !(type instanceof TypeName) ) return null;
+            String name = ((TypeName)type).getName();
+            return PRIMITIVE_KEYS.containsKey(name) ? name : null;
+        }
+        return null;
+    }
+
     public List<Interface> getInterfaces() {
 
         interfaces = new ArrayList<>();
@@ -202,12 +343,57 @@ public class STModel {
         for (Type anInterfaceType : interfaceTypes) {
             Interface anInterface = new Interface();
             anInterface.type = toJavaTypeName(anInterfaceType);
+            anInterface.graphQLName = ((TypeName)anInterfaceType).getName();
+            interfaces.add(anInterface);
+        }
+
+        if ( null == unionsByMember ) {
+            unionsByMember = getUnionsByMember(referenceTypes.values());
+        }
+        for ( String union : unionsByMember.getOrDefault(typeEntry.getName(), Collections.emptyList()) ) {
+            Interface anInterface = new Interface();
+            anInterface.type = toJavaClass(union);
             interfaces.add(anInterface);
         }
 
         return interfaces;
     }
 
+    /**
+     * @return the object types implementing this interface (sorted by name),
+     *     or the members of this union.
+     */
+    public List<PossibleType> getPossibleTypes() {
+        List<PossibleType> possibleTypes = new ArrayList<>();
+        if ( isUnionType() ) {
+            for ( Type memberType : ((UnionTypeDefinition)typeEntry.getDefinition()).getMemberTypes() ) {
+                String name = ((TypeName)memberType).getName();
+                possibleTypes.add(new PossibleType(name, toJavaClass(name)));
+            }
+        } else if ( isInterfaceType() ) {
+            Set<String> names = new TreeSet<>();
+            for ( TypeEntry entry : referenceTypes.values() ) {
+                if ( !(entry.getDefinition() instanceof ObjectTypeDefinition) ) continue;
+                for ( Type anInterfaceType : ((ObjectTypeDefinition)entry.getDefinition()).getImplements() ) {
+                    if ( typeEntry.getName().equals(((TypeName)anInterfaceType).getName()) ) {
+                        names.add(entry.getName());
+                    }
+                }
+            }
+            for ( String name : names ) {
+                possibleTypes.add(new PossibleType(name, toJavaClass(name)));
+            }
+        }
+        return possibleTypes;
+    }
+
+    // Fully qualified, since the type may be in another package:
+    private String toJavaClass(String name) {
+        TypeEntry entry = referenceTypes.get(name);
+        if ( null == entry || "".equals(entry.getPackageName()) || null == entry.getPackageName() ) return name;
+        return entry.getPackageName() + "." + name;
+    }
+
     public List<DataResolver> getDataResolvers() {
         Map<String, DataResolver> resolvers = new LinkedHashMap<>();
         for ( Field field : getFields() ) {
@@ -240,6 +426,11 @@ public class STModel {
         return imports;
     }
 
+    // True if getImports() already includes java.util.List:
+    public boolean isImportsList() {
+        return getImports().contains("java.util.List");
+    }
+
     public synchronized List<Field> getFields() {
         if ( null == fields ) {
             Definition def = typeEntry.getDefinition();
@@ -269,8 +460,24 @@ public class STModel {
             field.graphQLType = toGraphQLType(fieldDef.getType());
             field.dataResolver = toDataResolver(fieldDef.getType());
             field.args = toArgs(fieldDef.getInputValueDefinitions());
+            field.selectionType = toSelectionType(fieldDef.getType());
+            field.argsSelection = null != field.selectionType &&
+                field.args.stream().noneMatch((arg) -> "selection".equals(arg.name));
+            if ( field.args.isEmpty() ) {
+                field.primitiveType = toPrimitiveType(fieldDef.getType());
+                setCodec(field, fieldDef.getType());
+            }
+            if ( fields.size() < 63 ) {
+                field.presenceMask = "0x" + Long.toHexString(1L << fields.size()) + "L";
+            }
             fields.add(field);
         }
+        // A null primitive is stored as not present, which is only tracked by
+        // types with an id:
+        boolean tracked = fields.stream().anyMatch((field) -> "id".equals(field.name));
+        for ( Field field : fields ) {
+            if ( ! tracked || null == field.presenceMask ) field.primitiveType = null;
+        }
         return fields;
     }
 
@@ -278,6 +485,7 @@ public class STModel {
         List<Field> fields = new ArrayList<Field>();
         for ( FieldDefinition fieldDef : def.getFieldDefinitions() ) {
             Field field = new Field(fieldDef.getName(), toJavaTypeName(fieldDef.getType()));
+            field.graphQLType = toGraphQLType(fieldDef.getType());
             field.args = toArgs(fieldDef.getInputValueDefinitions());
             fields.add(field);
         }
@@ -290,6 +498,8 @@ public class STModel {
             Field field = new Field(fieldDef.getName(), toJavaTypeName(fieldDef.getType()));
             field.graphQLType = toGraphQLType(fieldDef.getType());
             field.defaultValue = toJavaValue(fieldDef.getDefaultValue());
+            setCodec(field, fieldDef.getType());
+            field.fromMap = toJavaValueFromMap(fieldDef.getType(), "args.get(\""+fieldDef.getName()+"\")");
             fields.add(field);
         }
         return fields;
@@ -325,6 +535,7 @@ public class STModel {
             Arg arg = new Arg(def.getName(), toJavaTypeName(def.getType()));
             arg.graphQLType = toGraphQLType(def.getType());
             arg.defaultValue = toJavaValue(def.getDefaultValue());
+            arg.fromMap = toJavaValueFromMap(def.getType(), "args.get(\""+def.getName()+"\")");
             result.add(arg);
         }
         return result;
@@ -335,6 +546,49 @@ public class STModel {
         return null;
     }
 
+    private String toJavaValueFromMap(Type type, String value) {
+        return toJavaValueFromMap(type, value, 0);
+    }
+
+    private String toJavaValueFromMap(Type type, String value, int depth) {
+        if ( type instanceof ListType ) {
+            Type elmType = ((ListType)type).getType();
+            if ( ! needsDecoding(elmType) ) {
+                return "(" + toJavaTypeName(type) + ")" + value;
+            }
+            String elm = "e" + depth;
+            return "com.distelli.graphql.MapDecoder.decodeList(" + value + ", (" + elm + ") -> " +
+                toJavaValueFromMap(elmType, elm, depth+1) + ")";
+        } else if ( type instanceof NonNullType ) {
+            return toJavaValueFromMap(((NonNullType)type).getType(), value, depth);
+        } else if ( type instanceof TypeName ) {
+            if ( needsDecoding(type) ) {
+                return toJavaTypeName(type) + ".fromMap((java.util.Map<String, Object>)" + value + ")";
+            }
+            // Scalars and enums are already coerced by graphql-java:
+            return "(" + toJavaTypeName(type) + ")" + value;
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
+    // Input objects are passed to us as a Map, so must be decoded:
+    private boolean needsDecoding(Type type) {
+        if ( type instanceof ListType ) {
+            return needsDecoding(((ListType)type).getType());
+        } else if ( type instanceof NonNullType ) {
+            return needsDecoding(((NonNullType)type).getType());
+        } else if ( type instanceof TypeName ) {
+            String name = ((TypeName)type).getName();
+            if ( BUILTINS.containsKey(name) ) return false;
+            TypeEntry typeEntry = referenceTypes.get(name);
+            return null != typeEntry &&
+                typeEntry.getDefinition() instanceof InputObjectTypeDefinition;
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
     private DataResolver toDataResolver(Type type) {
         if ( type instanceof ListType ) {
             DataResolver resolver = toDataResolver(((ListType)type).getType());
@@ -351,12 +605,112 @@ public class STModel {
             DataResolver resolver = new DataResolver();
             resolver.fieldType = typeName + ".Resolver";
             resolver.fieldName = "_" + lcFirst(typeName) + "Resolver";
+            resolver.asyncFieldType = typeName + ".AsyncResolver";
+            resolver.asyncFieldName = "_" + lcFirst(typeName) + "AsyncResolver";
+            resolver.keyedFieldType = typeName + ".KeyedResolver";
+            resolver.keyedFieldName = "_" + lcFirst(typeName) + "KeyedResolver";
+            String primitiveKeyName = getPrimitiveKeyName(typeEntry);
+            if ( null != primitiveKeyName ) {
+                resolver.primitiveKeyedFieldType = typeName + "." + primitiveKeyName + "KeyedResolver";
+                resolver.primitiveKeyedFieldName = "_" + lcFirst(typeName) + primitiveKeyName + "KeyedResolver";
+            }
+            resolver.dataLoaderKey = typeEntry.getPackageName() + "." + typeName;
+            resolver.idFunction = typeName + "::getId";
             return resolver;
         } else {
             throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
         }
     }
 
+    private String toSelectionType(Type type) {
+        if ( type instanceof ListType ) {
+            return toSelectionType(((ListType)type).getType());
+        } else if ( type instanceof NonNullType ) {
+            return toSelectionType(((NonNullType)type).getType());
+        } else if ( type instanceof TypeName ) {
+            TypeEntry typeEntry = referenceTypes.get(((TypeName)type).getName());
+            if ( null == typeEntry || !(typeEntry.getDefinition() instanceof ObjectTypeDefinition) ) return null;
+            return toJavaTypeName(type) + ".Selection";
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
+    private void setCodec(Field field, Type type) {
+        field.codecWriter = toCodecWriter(type, 0);
+        if ( null == field.codecWriter ) return;
+        field.codecReader = toCodecReader(type, 0);
+        field.codecWireType = toCodecWireType(type);
+    }
+
+    private String toCodecWireType(Type type) {
+        if ( type instanceof ListType ) {
+            return "NESTED";
+        } else if ( type instanceof NonNullType ) {
+            return toCodecWireType(((NonNullType)type).getType());
+        } else if ( type instanceof TypeName ) {
+            String name = ((TypeName)type).getName();
+            if ( CODECS.containsKey(name) ) return CODECS.get(name)[1];
+            TypeEntry typeEntry = referenceTypes.get(name);
+            return ( typeEntry.getDefinition() instanceof EnumTypeDefinition ) ? "VARINT" : "NESTED";
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
+    // Lambda parameters are suffixed by the list depth so nested lists do
+    // not shadow them:
+    private String toCodecWriter(Type type, int depth) {
+        if ( type instanceof ListType ) {
+            String elmWriter = toCodecWriter(((ListType)type).getType(), depth+1);
+            if ( null == elmWriter ) return null;
+            return "(v" + depth + ", b" + depth + ") -> BinaryCodec.writeList(v" + depth + ", b" + depth + ", " +
+                elmWriter + ")";
+        } else if ( type instanceof NonNullType ) {
+            return toCodecWriter(((NonNullType)type).getType(), depth);
+        } else if ( type instanceof TypeName ) {
+            String name = ((TypeName)type).getName();
+            if ( CODECS.containsKey(name) ) return "BinaryCodec::write" + CODECS.get(name)[0];
+            if ( ! hasCodec(name) ) return null;
+            return toJavaTypeName(type) + ".Codec::write";
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
+    private String toCodecReader(Type type, int depth) {
+        if ( type instanceof ListType ) {
+            return "(b" + depth + ") -> BinaryCodec.readList(b" + depth + ", " +
+                toCodecReader(((ListType)type).getType(), depth+1) + ")";
+        } else if ( type instanceof NonNullType ) {
+            return toCodecReader(((NonNullType)type).getType(), depth);
+        } else if ( type instanceof TypeName ) {
+            String name = ((TypeName)type).getName();
+            if ( CODECS.containsKey(name) ) return "BinaryCodec::read" + CODECS.get(name)[0];
+            return toJavaTypeName(type) + ".Codec::read";
+        } else {
+            throw new UnsupportedOperationException("Unknown Type="+type.getClass().getName());
+        }
+    }
+
+    // Interfaces and unions have no codec, since the concrete type is unknown:
+    private boolean hasCodec(String name) {
+        TypeEntry typeEntry = referenceTypes.get(name);
+        if ( null == typeEntry ) return false;
+        Definition def = typeEntry.getDefinition();
+        return def instanceof ObjectTypeDefinition ||
+            def instanceof InputObjectTypeDefinition ||
+            def instanceof EnumTypeDefinition;
+    }
+
+    // Only non-null scalars may be stored as a primitive:
+    private String toPrimitiveType(Type type) {
+        if ( !(type instanceof NonNullType) ) return null;
+        Type elmType = ((NonNullType)type).getType();
+        if ( !(elmType instanceof TypeName) ) return null;
+        return PRIMITIVES.get(((TypeName)elmType).getName());
+    }
+
     private String toGraphQLType(Type type) {
         if ( type instanceof ListType ) {
             return "new GraphQLList(" + toGraphQLType(((ListType)type).getType()) + ")";
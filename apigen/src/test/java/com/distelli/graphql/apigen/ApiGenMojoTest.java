@@ -54,4 +54,15 @@ public class ApiGenMojoTest {
 
         result.assertErrorFreeLog();
     }
+
+    @Test
+    public void testPostsTypedDataFetchers() throws Exception {
+        File basedir = resources.getBasedir("posts");
+        MavenExecutionResult result = mavenRuntime
+            .forProject(basedir)
+            .withCliOption("-DtypedDataFetchers=true")
+            .execute("clean", "test");
+
+        result.assertErrorFreeLog();
+    }
 }
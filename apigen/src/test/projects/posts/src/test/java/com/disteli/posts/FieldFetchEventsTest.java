@@ -0,0 +1,53 @@
+package com.distelli.posts;
+
+import org.junit.Test;
+import graphql.execution.batched.BatchedExecutionStrategy;
+import java.util.*;
+import graphql.GraphQL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.Assert.*;
+
+// Needs jdk.jfr, so it is only compiled on JDK 11+ (see pom.xml):
+public class FieldFetchEventsTest {
+    @Test
+    public void testFieldFetchEvents() throws Exception {
+        PostsTest posts = new PostsTest();
+        GraphQL graphQL = new GraphQL(PostsTest.newSchema(posts.setup()), new BatchedExecutionStrategy());
+
+        Path file = Files.createTempFile("fetch", ".jfr");
+        List<RecordedEvent> events;
+        try {
+            try ( Recording recording = new Recording() ) {
+                recording.enable("com.distelli.graphql.FieldFetch");
+                recording.start();
+                posts.checkExecutionResult(graphQL.execute("{posts{title author{firstName}}}"));
+                recording.stop();
+                recording.dump(file);
+            }
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        // Each resolved field is recorded once, by the ResolverDataFetcher and
+        // not again by the MethodDataFetcher it wraps (in the default mode):
+        List<RecordedEvent> authors = events.stream()
+            .filter((event) -> "author".equals(event.getString("fieldName")))
+            .collect(Collectors.toList());
+        assertEquals(1, authors.size());
+        RecordedEvent author = authors.get(0);
+        assertEquals("Post", author.getString("parentType"));
+        assertEquals(0, author.getInt("listDepth"));
+        assertEquals(3, author.getInt("batchSize"));
+        assertNotNull(author.getClass("resolverClass"));
+        assertEquals(1, events.stream().filter((event) -> "posts".equals(event.getString("fieldName"))).count());
+        // Fields without a resolver are fetched once per post, and are not
+        // instrumented at all with typedDataFetchers:
+        long titles = events.stream().filter((event) -> "title".equals(event.getString("fieldName"))).count();
+        assertTrue("titles="+titles, 0 == titles || 3 == titles);
+    }
+}
@@ -4,17 +4,35 @@ import org.junit.Test;
 import graphql.execution.batched.BatchedExecutionStrategy;
 import java.util.*;
 import graphql.schema.*;
+import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.GraphQL;
+import com.distelli.graphql.BinaryCodec;
+import com.distelli.graphql.CachingResolver;
+import com.distelli.graphql.ChunkedResolver;
+import com.distelli.graphql.FanOutExecutor;
+import com.distelli.graphql.FetchListener;
+import com.distelli.graphql.FetchMetrics;
+import com.distelli.graphql.LatencyHistogram;
+import com.distelli.graphql.MethodDataFetcher;
+import com.distelli.graphql.ResolverDataFetcher;
+import com.distelli.graphql.ResolverDataLoaders;
 import com.google.inject.Guice;
 import com.google.inject.Key;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
+import com.google.inject.Module;
 import com.google.inject.TypeLiteral;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.inject.multibindings.MapBinder;
 import javax.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.concurrent.atomic.AtomicInteger;
 import graphql.schema.DataFetchingEnvironment;
 import static org.junit.Assert.*;
@@ -29,11 +47,26 @@ public class PostsTest {
         public List<Post> getPosts() {
             return new ArrayList<>(posts.values());
         }
+        @Override
+        public List<Node> getNodes() {
+            return new ArrayList<>(posts.values());
+        }
+        @Override
+        public List<SearchResult> search(QueryPosts.SearchArgs args) {
+            List<SearchResult> results = new ArrayList<>();
+            for ( Post post : posts.values() ) {
+                if ( ! post.getTitle().contains(args.getText()) ) continue;
+                results.add(post);
+                results.add(post.getAuthor());
+            }
+            return results;
+        }
     }
     public static class MutatePostsImpl implements MutatePosts {
         private AtomicInteger nextPostId = new AtomicInteger(5);
         private Map<Integer, Post> posts;
         private DataFetchingEnvironment env;
+        private Post.Selection selection;
         public MutatePostsImpl(Map<Integer, Post> posts) {
             this.posts = posts;
         }
@@ -49,6 +82,7 @@ public class PostsTest {
             if ( ! "authorized-user".equals(env.getContext()) ) {
                 throw new java.security.AccessControlException("context MUST be authorized-user");
             }
+            selection = args.getSelection();
             InputPost req = args.getPost();
             Post.Builder postBuilder = new Post.Builder()
                 .withTitle(req.getTitle())
@@ -69,9 +103,7 @@ public class PostsTest {
                 // Should throw NoSuchEntityException!
                 if ( null == post ) throw new RuntimeException("NotFound");
 
-                Post upvoted = new Post.Builder(post)
-                    .withVotes(post.getVotes()+1)
-                    .build();
+                Post upvoted = post.withVotes(post.getVotes()+1);
                 posts.put(args.getPostId(), upvoted);
                 return upvoted;
             }
@@ -110,7 +142,17 @@ public class PostsTest {
             return result;
         }
     }
-    public Injector setup() throws Exception {
+    public static class AuthorAsyncResolver implements Author.AsyncResolver {
+        private Author.Resolver resolver;
+        public AuthorAsyncResolver(Author.Resolver resolver) {
+            this.resolver = resolver;
+        }
+        @Override
+        public CompletableFuture<List<Author>> resolveAsync(List<Author> unresolvedList) {
+            return CompletableFuture.supplyAsync(() -> resolver.resolve(unresolvedList));
+        }
+    }
+    public Injector setup(Module... modules) throws Exception {
         // Setup datastores:
         Map<Integer, Author> authors = new LinkedHashMap<>();
         authors.put(1,
@@ -151,9 +193,9 @@ public class PostsTest {
                   .withAuthor(new Author.Unresolved(2))
                   .build());
 
-        Injector injector = Guice.createInjector(
-            new PostsModule(),
-            new AbstractModule() {
+        List<Module> allModules = new ArrayList<>(Arrays.asList(modules));
+        allModules.add(new PostsModule());
+        allModules.add(new AbstractModule() {
                 @Override
                 protected void configure() {
                     bind(Author.Resolver.class)
@@ -166,20 +208,19 @@ public class PostsTest {
                         .toInstance(new QueryPostsImpl(posts));
                 }
             });
+        Injector injector = Guice.createInjector(allModules);
         return injector;
     }
 
+    // The generated schema, built once per injector:
+    static GraphQLSchema newSchema(Injector injector) {
+        return injector.getInstance(PostsModuleSchema.class).get();
+    }
+
     @Test
     public void testQuery() throws Exception {
         Injector injector = setup();
-
-        // TODO: Support "schema" type so this is generated too :)
-        Map<String, GraphQLType> types =
-            injector.getInstance(Key.get(new TypeLiteral<Map<String, GraphQLType>>(){}));
-        GraphQLSchema schema = GraphQLSchema.newSchema()
-            .query((GraphQLObjectType)types.get("QueryPosts"))
-            .mutation((GraphQLObjectType)types.get("MutatePosts"))
-            .build(new HashSet<>(types.values()));
+        GraphQLSchema schema = newSchema(injector);
 
         GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
         ObjectMapper om = new ObjectMapper();
@@ -223,7 +264,821 @@ public class PostsTest {
             posts.stream().map((post) -> post.getAuthor().getId()).toArray(size -> new Integer[size]));
     }
 
-    private void checkExecutionResult(ExecutionResult result) throws Exception {
+    @Test
+    public void testAsyncResolver() throws Exception {
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.AsyncResolver.class)
+                        .toProvider(() -> new AuthorAsyncResolver(new AuthorResolver(Collections.singletonMap(
+                            2, new Author.Builder().withId(2).withFirstName("Async").build()))));
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+
+        // Uses the default AsyncExecutionStrategy:
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = graphQL.execute("{posts{title author{firstName}}}");
+        checkExecutionResult(result);
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"posts\":[{\"author\":null,\"title\":\"GraphQL Rocks\"},{\"author\":{\"firstName\":\"Async\"},\"title\":\"Announcing Callisto\"},{\"author\":{\"firstName\":\"Async\"},\"title\":\"Distelli Contributing to Open Source\"}]}",
+                     om.writeValueAsString(result.getData()));
+    }
+
+    @Test
+    public void testDataLoader() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Integer> resolvedIds = new ArrayList<>();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.AsyncResolver.class)
+                        .toInstance((list) -> {
+                                batchSizes.add(list.size());
+                                for ( Author author : list ) resolvedIds.add(author.getId());
+                                return CompletableFuture.completedFuture(list);
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+        ResolverDataLoaders dataLoaders = new ResolverDataLoaders(schema);
+
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = graphQL.execute(
+            ExecutionInput.newExecutionInput()
+            .query("{posts{title author{id firstName}}}")
+            .dataLoaderRegistry(dataLoaders.newDataLoaderRegistry()));
+        checkExecutionResult(result);
+        // All three posts are resolved in a single batch, but the two posts
+        // by author 2 share a single resolve:
+        assertEquals(Arrays.asList(2), batchSizes);
+        assertEquals(Arrays.asList(1, 2), resolvedIds);
+    }
+
+    @Test
+    public void testDedupById() throws Exception {
+        List<Integer> resolvedIds = new ArrayList<>();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.AsyncResolver.class)
+                        .toInstance((list) -> {
+                                for ( Author author : list ) resolvedIds.add(author.getId());
+                                return CompletableFuture.completedFuture(list);
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+
+        GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+        ExecutionResult result = graphQL.execute("{posts{title author{id firstName}}}");
+        checkExecutionResult(result);
+        // Posts 2 and 3 share author 2, which is only resolved once:
+        assertEquals(Arrays.asList(1, 2), resolvedIds);
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"posts\":[{\"author\":{\"firstName\":null,\"id\":1},\"title\":\"GraphQL Rocks\"},{\"author\":{\"firstName\":null,\"id\":2},\"title\":\"Announcing Callisto\"},{\"author\":{\"firstName\":null,\"id\":2},\"title\":\"Distelli Contributing to Open Source\"}]}",
+                     om.writeValueAsString(result.getData()));
+    }
+
+    @Test
+    public void testFieldPresence() throws Exception {
+        List<Integer> resolvedIds = new ArrayList<>();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.AsyncResolver.class)
+                        .toInstance((list) -> {
+                                for ( Author author : list ) resolvedIds.add(author.getId());
+                                return CompletableFuture.completedFuture(list);
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+        // Only the id is selected, which every Author.Unresolved has:
+        for ( GraphQL graphQL : Arrays.asList(
+                  new GraphQL(schema, new BatchedExecutionStrategy()),
+                  GraphQL.newGraphQL(schema).build()) )
+        {
+            ExecutionResult result = graphQL.execute("{posts{author{id __typename}}}");
+            checkExecutionResult(result);
+            assertEquals(Collections.emptyList(), resolvedIds);
+            assertEquals("{\"posts\":[{\"author\":{\"__typename\":\"Author\",\"id\":1}},{\"author\":{\"__typename\":\"Author\",\"id\":2}},{\"author\":{\"__typename\":\"Author\",\"id\":2}}]}",
+                         om.writeValueAsString(result.getData()));
+        }
+
+        Author.Unresolved unresolved = new Author.Unresolved(1);
+        assertEquals(0x1L, unresolved.getFieldPresence());
+        assertEquals(Arrays.asList("id", "firstName", "lastName", "posts"), unresolved.getFieldPresenceNames());
+        Author.Impl author = (Author.Impl)new Author.Builder(unresolved)
+            .withLastName(null)
+            .build();
+        assertEquals(0x5L, author.getFieldPresence());
+        assertEquals(0x5L, ((Author.Impl)new Author.Builder(author).build()).getFieldPresence());
+        assertEquals(0x0L, ((Author.Impl)new Author.Builder(new Author(){}).build()).getFieldPresence());
+    }
+
+    @Test
+    public void testSelection() throws Exception {
+        List<Author.Selection> selections = new ArrayList<>();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.AsyncResolver.class)
+                        .toInstance(new Author.AsyncResolver() {
+                                @Override
+                                public CompletableFuture<List<Author>> resolveAsync(List<Author> list) {
+                                    throw new AssertionError("Expected resolveAsync(List, Selection)");
+                                }
+                                @Override
+                                public CompletableFuture<List<Author>> resolveAsync(List<Author> list, Author.Selection selection) {
+                                    selections.add(selection);
+                                    return CompletableFuture.completedFuture(list);
+                                }
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+
+        GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+        ExecutionResult result = graphQL.execute("{posts{author{lastName posts{title}}}}");
+        checkExecutionResult(result);
+        assertEquals(1, selections.size());
+        Author.Selection selection = selections.get(0);
+        assertFalse(selection.isId());
+        assertFalse(selection.isFirstName());
+        assertTrue(selection.isLastName());
+        assertTrue(selection.isPosts());
+        assertTrue(selection.getPosts().isTitle());
+        assertFalse(selection.getPosts().isVotes());
+        assertNull(selection.getPosts().getAuthor());
+        assertEquals("Author.Selection{id=false, firstName=false, lastName=true, posts=Post.Selection{id=false, title=true, author=null, votes=false}}",
+                     selection.toString());
+
+        // Root methods with arguments get the selection from their args:
+        result = graphQL.execute(
+            "mutation{createPost(post:{title:\"NEW\" authorId:1}){title author{id}}}",
+            "authorized-user");
+        checkExecutionResult(result);
+        Post.Selection postSelection = ((MutatePostsImpl)injector.getInstance(MutatePosts.class)).selection;
+        assertTrue(postSelection.isTitle());
+        assertFalse(postSelection.isVotes());
+        assertTrue(postSelection.getAuthor().isId());
+        assertFalse(postSelection.getAuthor().isFirstName());
+        assertNull(MutatePosts.CreatePostArgs.fromMap(Collections.emptyMap()).getSelection());
+    }
+
+    @Test
+    public void testKeyedResolver() throws Exception {
+        List<Set<Integer>> batches = new ArrayList<>();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.KeyedResolver.class)
+                        .toInstance((ids) -> {
+                                batches.add(ids);
+                                // Author 1 is not found:
+                                return Collections.singletonMap(
+                                    2, new Author.Builder().withId(2).withFirstName("Keyed").build());
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+
+        GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+        ExecutionResult result = graphQL.execute("{posts{title author{firstName}}}");
+        checkExecutionResult(result);
+        assertEquals(Arrays.asList(new HashSet<>(Arrays.asList(1, 2))), batches);
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"posts\":[{\"author\":null,\"title\":\"GraphQL Rocks\"},{\"author\":{\"firstName\":\"Keyed\"},\"title\":\"Announcing Callisto\"},{\"author\":{\"firstName\":\"Keyed\"},\"title\":\"Distelli Contributing to Open Source\"}]}",
+                     om.writeValueAsString(result.getData()));
+    }
+
+    @Test
+    public void testIntKeyedResolver() throws Exception {
+        List<int[]> batches = new ArrayList<>();
+        Author.IntKeyedResolver resolver = (ids) -> {
+            batches.add(ids);
+            // Results may be in any order:
+            List<Author> found = new ArrayList<>();
+            for ( int i=ids.length; i-- > 0; ) {
+                if ( ids[i] > 3 ) continue;
+                found.add(new Author.Builder().withId(ids[i]).withFirstName("Int"+ids[i]).build());
+            }
+            return found;
+        };
+        List<Author> resolved = resolver.resolveAsync(Arrays.asList(
+            new Author.Unresolved(3),
+            null,
+            new Author.Unresolved(1),
+            new Author.Unresolved(4),
+            new Author.Unresolved(3),
+            // Resolve to null, not to the author with id 0:
+            new Author.Unresolved(null),
+            new Author.Builder().withFirstName("NoId").build())).get();
+        assertArrayEquals(new int[]{1, 3, 4}, batches.get(0));
+        assertEquals(Arrays.asList("Int3", null, "Int1", null, "Int3", null, null),
+                     resolved.stream()
+                     .map((author) -> ( null == author ) ? null : author.getFirstName())
+                     .collect(Collectors.toList()));
+
+        // The primitive keyed resolver is preferred:
+        batches.clear();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.IntKeyedResolver.class).toInstance(resolver);
+                    bind(Author.KeyedResolver.class).toInstance((ids) -> {
+                            throw new AssertionError("Expected IntKeyedResolver to be used");
+                        });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+
+        GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+        ExecutionResult result = graphQL.execute("{posts{author{firstName}}}");
+        checkExecutionResult(result);
+        assertEquals(1, batches.size());
+        assertArrayEquals(new int[]{1, 2}, batches.get(0));
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"posts\":[{\"author\":{\"firstName\":\"Int1\"}},{\"author\":{\"firstName\":\"Int2\"}},{\"author\":{\"firstName\":\"Int2\"}}]}",
+                     om.writeValueAsString(result.getData()));
+    }
+
+    @Test
+    public void testCachingResolver() throws Exception {
+        List<Integer> resolvedIds = new ArrayList<>();
+        CachingResolver<Author> authors = new CachingResolver<>(
+            (list) -> {
+                List<Author> result = new ArrayList<>();
+                for ( Author author : list ) {
+                    resolvedIds.add(author.getId());
+                    result.add(new Author.Builder(author).withFirstName("Cached").build());
+                }
+                return result;
+            },
+            Author::getId, 2, 0, TimeUnit.SECONDS);
+
+        List<Author> resolved = authors.resolve(Arrays.asList(
+            new Author.Unresolved(1), new Author.Unresolved(2), new Author.Unresolved(1)));
+        assertEquals(Arrays.asList(1, 2), resolvedIds);
+        assertEquals(Arrays.asList(1, 2, 1),
+                     resolved.stream().map(Author::getId).collect(Collectors.toList()));
+        assertEquals("Cached", resolved.get(2).getFirstName());
+
+        // Served from the cache:
+        authors.resolve(Arrays.asList(new Author.Unresolved(2)));
+        assertEquals(Arrays.asList(1, 2), resolvedIds);
+
+        authors.invalidate(2);
+        authors.resolve(Arrays.asList(new Author.Unresolved(2), new Author.Unresolved(1)));
+        assertEquals(Arrays.asList(1, 2, 2), resolvedIds);
+        assertEquals(2, authors.size());
+    }
+
+    @Test
+    public void testChunkedResolver() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ChunkedResolver<Author> authors = new ChunkedResolver<>(
+                (Author.Resolver)(list) -> {
+                    batchSizes.add(list.size());
+                    return list;
+                },
+                2, executor);
+            List<Author> unresolved = new ArrayList<>();
+            for ( int id=1; id <= 5; id++ ) {
+                unresolved.add(new Author.Unresolved(id));
+            }
+            List<Author> resolved = authors.resolveAsync(unresolved).get();
+            assertEquals(unresolved, resolved);
+            Collections.sort(batchSizes);
+            assertEquals(Arrays.asList(1, 2, 2), batchSizes);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunkedResolverSelection() throws Exception {
+        List<Author.Selection> selections = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ChunkedResolver<Author> authors = new ChunkedResolver<>(
+                new Author.AsyncResolver() {
+                    @Override
+                    public CompletableFuture<List<Author>> resolveAsync(List<Author> list) {
+                        throw new AssertionError("Expected resolveAsync(List, Selection)");
+                    }
+                    @Override
+                    public CompletableFuture<List<Author>> resolveAsync(List<Author> list, Author.Selection selection) {
+                        selections.add(selection);
+                        return CompletableFuture.completedFuture(list);
+                    }
+                },
+                1, executor);
+            Injector injector = setup(new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(Author.AsyncResolver.class)
+                            .toInstance(Author.AsyncResolver.from(authors));
+                    }
+                });
+            GraphQLSchema schema = newSchema(injector);
+
+            GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+            ExecutionResult result = graphQL.execute("{posts{author{lastName}}}");
+            checkExecutionResult(result);
+            assertTrue(selections.size() > 1);
+            for ( Author.Selection selection : selections ) {
+                assertFalse(selection.isFirstName());
+                assertTrue(selection.isLastName());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // MethodDataFetcher only calls getters of public classes:
+    public static class ThrowingQueryPosts extends QueryPostsImpl {
+        private List<Throwable> thrown = new ArrayList<>();
+        public ThrowingQueryPosts() {
+            super(new HashMap<>());
+        }
+        @Override
+        public List<SearchResult> search(QueryPosts.SearchArgs args) {
+            if ( thrown.isEmpty() ) throw new AssertionError("search(" + args.getText() + ")");
+            Throwable ex = thrown.remove(0);
+            if ( ex instanceof RuntimeException ) throw (RuntimeException)ex;
+            throw (Error)ex;
+        }
+    }
+
+    @Test
+    public void testMethodDataFetcherExceptions() throws Exception {
+        GraphQLObjectType queryType = newSchema(setup()).getQueryType();
+        ThrowingQueryPosts query = new ThrowingQueryPosts();
+        List<Throwable> thrown = query.thrown;
+        MethodDataFetcher fetcher = new MethodDataFetcher("search", QueryPosts.SearchArgs.class, query);
+        Map<String, Object> args = new HashMap<>();
+        args.put("text", "a");
+        DataFetchingEnvironment env = DataFetchingEnvironmentImpl.newDataFetchingEnvironment()
+            .parentType(queryType)
+            .fieldType(queryType.getFieldDefinition("search").getType())
+            .arguments(args)
+            .build();
+
+        // Errors are rethrown unchanged:
+        StackOverflowError error = new StackOverflowError();
+        thrown.add(error);
+        try {
+            fetcher.get(env);
+            fail("Expected StackOverflowError");
+        } catch (StackOverflowError ex) {
+            assertSame(error, ex);
+        }
+
+        // Getter exceptions are wrapped:
+        IllegalStateException failure = new IllegalStateException("search failed");
+        thrown.add(failure);
+        try {
+            fetcher.get(env);
+            fail("Expected RuntimeException");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getCause() instanceof java.lang.reflect.InvocationTargetException);
+            assertSame(failure, ex.getCause().getCause());
+        }
+
+        // Argument decoding failures are not reported as getter failures:
+        args.put("text", 42);
+        env = DataFetchingEnvironmentImpl.newDataFetchingEnvironment(env)
+            .arguments(args)
+            .build();
+        try {
+            fetcher.get(env);
+            fail("Expected ClassCastException");
+        } catch (ClassCastException ex) {
+        }
+    }
+
+    @Test
+    public void testFanOutExecutor() throws Exception {
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Injector injector = setup(new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(FanOutExecutor.class)
+                            .toInstance(new FanOutExecutor((task) -> {
+                                    tasks.incrementAndGet();
+                                    executor.execute(task);
+                                }, 2));
+                    }
+                });
+            GraphQLSchema schema = newSchema(injector);
+
+            GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+            ExecutionResult result = graphQL.execute("{posts{title author{firstName}}}");
+            checkExecutionResult(result);
+            ObjectMapper om = new ObjectMapper();
+            om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+            assertEquals("{\"posts\":[{\"author\":{\"firstName\":\"Brian\"},\"title\":\"GraphQL Rocks\"},{\"author\":{\"firstName\":\"Rahul\"},\"title\":\"Announcing Callisto\"},{\"author\":{\"firstName\":\"Rahul\"},\"title\":\"Distelli Contributing to Open Source\"}]}",
+                         om.writeValueAsString(result.getData()));
+            // The fetchers for the 3 post authors were fanned out:
+            assertTrue(tasks.get() > 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFetchMetrics() throws Exception {
+        FetchMetrics metrics = new FetchMetrics();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(FetchListener.class).toInstance(metrics);
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+        ResolverDataLoaders dataLoaders = new ResolverDataLoaders(schema);
+
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = graphQL.execute(
+            ExecutionInput.newExecutionInput()
+            .query("{posts{title author{firstName}}}")
+            .dataLoaderRegistry(dataLoaders.newDataLoaderRegistry()));
+        checkExecutionResult(result);
+
+        assertEquals(1, metrics.getFieldMetrics().get("QueryPosts.posts").getLatencyNanos().getCount());
+        assertEquals(3, metrics.getFieldMetrics().get("Post.title").getLatencyNanos().getCount());
+        assertEquals(3, metrics.getFieldMetrics().get("Post.author").getLatencyNanos().getCount());
+        assertEquals(0, metrics.getFieldMetrics().get("Post.author").getErrors());
+        FetchMetrics.ResolverMetrics authors = metrics.getResolverMetrics().get("com.distelli.posts.Author");
+        assertEquals(1, authors.getLatencyNanos().getCount());
+        assertEquals(2, authors.getBatchSize().getMax());
+    }
+
+    @Test
+    public void testLatencyHistogram() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long value=1; value <= 1000; value++ ) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue("p50="+p50, p50 >= 500 && p50 <= 500 * 1.07);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue("p99="+p99, p99 >= 990 && p99 <= 1000);
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testNestedListResolve() throws Exception {
+        ResolverDataFetcher fetcher = new ResolverDataFetcher(
+            (env) -> null, (Author.Resolver)(list) -> list, 2);
+        List<Object> nested = Arrays.asList(
+            Arrays.asList(1, 2),
+            null,
+            new LinkedList<>(Arrays.asList(3, null)),
+            Collections.emptyList());
+        List<Object> unresolved = new ArrayList<>();
+        fetcher.addUnresolved(unresolved, nested, 2);
+        assertEquals(Arrays.asList(1, 2, 3, null), unresolved);
+
+        Iterator<Object> resolved = Arrays.<Object>asList("a", "b", "c", "d").iterator();
+        assertEquals(
+            Arrays.asList(Arrays.asList("a", "b"), null, Arrays.asList("c", "d"), Collections.emptyList()),
+            fetcher.replaceResolved(nested, resolved, 2));
+        assertFalse(resolved.hasNext());
+    }
+
+    @Test
+    public void testFromMap() throws Exception {
+        Map<String, Object> post = new HashMap<>();
+        post.put("title", "FROM MAP");
+        post.put("authorId", 2);
+        MutatePosts.CreatePostArgs args =
+            MutatePosts.CreatePostArgs.fromMap(Collections.singletonMap("post", post));
+        assertEquals(InputPost.Impl.class, args.getPost().getClass());
+        assertEquals("FROM MAP", args.getPost().getTitle());
+        assertEquals(Integer.valueOf(2), args.getPost().getAuthorId());
+        assertNull(InputPost.fromMap(null));
+    }
+
+    @Test
+    public void testEqualsHashCodeIntern() throws Exception {
+        Author author = new Author.Builder().withId(1).withFirstName("Brian").build();
+        Post a = new Post.Builder().withId(1).withTitle("GraphQL Rocks").withAuthor(author).build();
+        Post b = new Post.Builder().withId(1).withTitle("GraphQL Rocks")
+            .withAuthor(new Author.Builder(author).build())
+            .build();
+        assertNotSame(a, b);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(1, new HashSet<>(Arrays.asList(a, b)).size());
+
+        assertNotEquals(a, new Post.Builder(a).withTitle("Other").build());
+        // Explicitly setting a null field changes the field presence:
+        assertNotEquals(a, new Post.Builder(a).withVotes(null).build());
+        assertNotEquals(author, new Author.Unresolved(1));
+
+        InputPost input = new InputPost.Builder().withTitle("GraphQL Rocks").withAuthorId(1).build();
+        assertEquals(input, new InputPost.Builder(input).build());
+        assertEquals(input.hashCode(), new InputPost.Builder(input).build().hashCode());
+        assertNotEquals(input, new InputPost.Builder(input).withAuthorId(2).build());
+
+        assertSame(a, Post.intern(a));
+        assertSame(a, Post.intern(b));
+        assertNull(Post.intern(null));
+    }
+
+    @Test
+    public void testPrimitiveFields() throws Exception {
+        // Non-null scalars are stored unboxed:
+        assertEquals(int.class, Post.Impl.class.getDeclaredField("_id").getType());
+        assertEquals(Integer.class, Post.Impl.class.getDeclaredField("_votes").getType());
+        // ...only by types with FieldPresence, which can tell a null apart:
+        assertEquals(Integer.class, InputPost.Impl.class.getDeclaredField("_authorId").getType());
+
+        Post post = new Post.Builder().withId(1000).withVotes(2).build();
+        assertEquals(1000, post.getIdAsInt());
+        assertEquals(Integer.valueOf(1000), post.getId());
+        assertEquals(1000, new Post.Builder(post).build().getIdAsInt());
+        assertEquals(3, new Author.Unresolved(3).getIdAsInt());
+
+        // A null (or missing) value is not present, so it is not read as 0:
+        Post noId = new Post.Builder(post).withId((Integer)null).build();
+        assertNull(noId.getId());
+        assertEquals(0, noId.getIdAsInt());
+        assertNotEquals(noId, new Post.Builder(post).withId(0).build());
+        assertEquals(noId, post.withId((Integer)null));
+        assertNull(new Post.Builder().withTitle("No Id").build().getId());
+        assertNull(new Post.Builder(noId).build().getId());
+        assertEquals(Integer.valueOf(0), noId.withId(0).getId());
+        assertNull(Post.Codec.read(java.nio.ByteBuffer.wrap(
+            BinaryCodec.toByteArray(noId, Post.Codec::write))).getId());
+        assertNull(InputPost.fromMap(Collections.emptyMap()).getAuthorId());
+
+        // ...nor by the data fetchers:
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.KeyedResolver.class)
+                        .toInstance((ids) -> {
+                                Map<Integer, Author> found = new HashMap<>();
+                                for ( Integer id : ids ) {
+                                    found.put(id, new Author.Builder().withFirstName("No Id").build());
+                                }
+                                return found;
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+        ExecutionResult result = GraphQL.newGraphQL(schema).build()
+            .execute("{posts{author{id firstName}}}");
+        checkExecutionResult(result);
+        assertEquals("{author={id=null, firstName=No Id}}",
+                     ((Map<String, List<Object>>)result.getData()).get("posts").get(0).toString());
+    }
+
+    @Test
+    public void testLazyPrimitiveNull() throws Exception {
+        // A non-null field may not be supplied as null:
+        Post post = new Post.Builder().withIdSupplier(() -> null).withTitle("Null Id").build();
+        for ( Runnable read : Arrays.<Runnable>asList(post::getId, post::getIdAsInt, post::hashCode) ) {
+            try {
+                read.run();
+                fail("Expected NullPointerException");
+            } catch ( NullPointerException ex ) {
+                assertEquals("Post.id", ex.getMessage());
+            }
+        }
+        // ...while the boxed setter may clear it:
+        assertNull(new Post.Builder(post).withId((Integer)null).build().getId());
+    }
+
+    @Test
+    public void testLazyFields() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Author author = new Author.Builder()
+            .withId(2)
+            .withFirstName("Lazy")
+            .withPostsSupplier(() -> {
+                    calls.incrementAndGet();
+                    return Arrays.asList(new Post.Unresolved(3));
+                })
+            .build();
+        // Copies are lazy too, and share the evaluated value:
+        Author copy = new Author.Builder(author).withLastName("Copy").build();
+        assertEquals(0, calls.get());
+        assertEquals(Arrays.asList("id", "firstName", "lastName", "posts"),
+                     getPresentFieldNames((Author.Impl)copy));
+        assertEquals(1, author.getPosts().size());
+        assertSame(author.getPosts(), copy.getPosts());
+        assertEquals(1, calls.get());
+        // The plain setter replaces the supplier:
+        assertNull(new Author.Builder(author).withPosts(null).build().getPosts());
+
+        Post post = new Post.Builder().withIdSupplier(() -> 7).build();
+        assertEquals(7, post.getIdAsInt());
+        assertEquals(post, new Post.Builder().withId(7).build());
+
+        // Only fields read by the executor are evaluated:
+        AtomicInteger postsCalls = new AtomicInteger();
+        Injector injector = setup(new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(Author.KeyedResolver.class)
+                        .toInstance((ids) -> {
+                                Map<Integer, Author> found = new HashMap<>();
+                                for ( Integer id : ids ) {
+                                    found.put(id, new Author.Builder()
+                                              .withId(id)
+                                              .withFirstName("Lazy"+id)
+                                              .withPostsSupplier(() -> {
+                                                      postsCalls.incrementAndGet();
+                                                      return Collections.emptyList();
+                                                  })
+                                              .build());
+                                }
+                                return found;
+                            });
+                }
+            });
+        GraphQLSchema schema = newSchema(injector);
+        GraphQL graphQL = new GraphQL(schema, new BatchedExecutionStrategy());
+        checkExecutionResult(graphQL.execute("{posts{author{firstName}}}"));
+        assertEquals(0, postsCalls.get());
+        checkExecutionResult(graphQL.execute("{posts{author{firstName posts{id}}}}"));
+        assertEquals(2, postsCalls.get());
+    }
+
+    @Test
+    public void testCodec() throws Exception {
+        Author author = new Author.Builder()
+            .withId(300)
+            .withFirstName("Brian")
+            .withPosts(Arrays.asList(new Post.Builder().withId(1).build(), null))
+            .build();
+        Post post = new Post.Builder()
+            .withId(-1)
+            .withTitle("GraphQL Rocks \u2713")
+            .withAuthor(author)
+            .withVotes(null)
+            .build();
+        byte[] bytes = BinaryCodec.toByteArray(post, Post.Codec::write);
+        Post copy = BinaryCodec.fromByteArray(bytes, Post.Codec::read);
+        // Includes the field presence, so the null votes are still present:
+        assertEquals(post, copy);
+        assertEquals(Arrays.asList("id", "firstName", "posts"),
+                     getPresentFieldNames((Author.Impl)copy.getAuthor()));
+        assertNull(copy.getAuthor().getPosts().get(1));
+        // Unresolved instances are read as an Impl with only the id present:
+        Post unresolved = BinaryCodec.fromByteArray(
+            BinaryCodec.toByteArray(new Post.Unresolved(1), Post.Codec::write), Post.Codec::read);
+        assertEquals(new Post.Builder().withId(1).build(), unresolved);
+        assertEquals(0x1L, ((com.distelli.graphql.FieldPresence)unresolved).getFieldPresence());
+
+        InputPost input = new InputPost.Builder().withTitle("Input").withAuthorId(2).build();
+        assertEquals(input, BinaryCodec.fromByteArray(
+                         BinaryCodec.toByteArray(input, InputPost.Codec::write), InputPost.Codec::read));
+
+        // Fields unknown to this schema are skipped:
+        ByteBuffer buf = ByteBuffer.allocate(256);
+        BinaryCodec.writeTag(buf, 1, BinaryCodec.VARINT);
+        BinaryCodec.writeInt(5, buf);
+        BinaryCodec.writeTag(buf, 99, BinaryCodec.BYTES);
+        BinaryCodec.writeString("unknown", buf);
+        BinaryCodec.writeTag(buf, 98, BinaryCodec.NESTED);
+        BinaryCodec.writeNested(author, buf, Author.Codec::write);
+        BinaryCodec.writeTag(buf, 97, BinaryCodec.FIXED64);
+        BinaryCodec.writeDouble(1.5, buf);
+        BinaryCodec.writeTag(buf, 96, BinaryCodec.NULL);
+        BinaryCodec.writeTag(buf, 2, BinaryCodec.BYTES);
+        BinaryCodec.writeString("Known", buf);
+        BinaryCodec.writeEnd(buf);
+        buf.flip();
+        assertEquals(new Post.Builder().withId(5).withTitle("Known").build(), Post.Codec.read(buf));
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test
+    public void testWithCopy() throws Exception {
+        Post post = new Post.Builder().withId(1).withTitle("GraphQL Rocks").withVotes(1000).build();
+        Post upvoted = post.withVotes(1001);
+        assertEquals(Post.Impl.class, upvoted.getClass());
+        assertEquals(new Post.Builder(post).withVotes(1001).build(), upvoted);
+        assertEquals(Integer.valueOf(1000), post.getVotes());
+        assertNotEquals(post.hashCode(), upvoted.hashCode());
+        // Unchanged values do not copy:
+        assertSame(post, post.withVotes(1000));
+        assertSame(post, post.withId(1));
+        assertSame(post, post.withTitle(new String("GraphQL Rocks")));
+        // ...unless the field was not present:
+        Post withAuthor = post.withAuthor(null);
+        assertNotSame(post, withAuthor);
+        assertNotEquals(post, withAuthor);
+        assertSame(withAuthor, withAuthor.withAuthor(null));
+
+        // Replacing a lazy field does not evaluate it:
+        AtomicInteger calls = new AtomicInteger();
+        Author author = new Author.Builder()
+            .withId(1)
+            .withPostsSupplier(() -> {
+                    calls.incrementAndGet();
+                    return Collections.emptyList();
+                })
+            .build();
+        Author replaced = author.withPosts(Arrays.asList(post));
+        assertEquals(Arrays.asList(post), replaced.getPosts());
+        assertEquals(0, calls.get());
+        assertEquals(Collections.emptyList(), author.getPosts());
+        assertEquals(1, calls.get());
+
+        // Other implementations are copied through the Builder:
+        assertEquals(new Post.Builder().withId(2).withTitle("Unresolved").build(),
+                     new Post.Unresolved(2).withTitle("Unresolved"));
+    }
+
+    @Test
+    public void testInterfaceAndUnion() throws Exception {
+        Injector injector = setup();
+        Map<String, GraphQLType> types =
+            injector.getInstance(Key.get(new TypeLiteral<Map<String, GraphQLType>>(){}));
+        assertTrue(types.get("Node") instanceof GraphQLInterfaceType);
+        assertTrue(types.get("SearchResult") instanceof GraphQLUnionType);
+        GraphQLSchema schema = newSchema(injector);
+        assertEquals(Arrays.asList("Node"),
+                     schema.getObjectType("Post").getInterfaces().stream()
+                     .map(GraphQLType::getName).collect(Collectors.toList()));
+
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = graphQL.execute(
+            "{nodes{__typename id} search(text:\"GraphQL\"){__typename ... on Post{title} ... on Author{id firstName}}}");
+        checkExecutionResult(result);
+        ObjectMapper om = new ObjectMapper();
+        om.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"nodes\":[{\"__typename\":\"Post\",\"id\":1},{\"__typename\":\"Post\",\"id\":3},{\"__typename\":\"Post\",\"id\":4}],"+
+                     "\"search\":[{\"__typename\":\"Post\",\"title\":\"GraphQL Rocks\"},{\"__typename\":\"Author\",\"firstName\":null,\"id\":1}]}",
+                     om.writeValueAsString(result.getData()));
+
+        // Any class implementing a possible type resolves to that type:
+        com.distelli.graphql.ClassTypeResolver resolver =
+            new com.distelli.graphql.ClassTypeResolver.Builder()
+            .withType(Post.class, "Post")
+            .withType(Author.class, "Author")
+            .build();
+        assertEquals("Post", resolver.getTypeName(new Post.Builder().build().getClass()));
+        assertEquals("Author", resolver.getTypeName(new Author.Unresolved(1).getClass()));
+        assertNull(resolver.getTypeName(String.class));
+    }
+
+    @Test
+    public void testGeneratedSchema() throws Exception {
+        Injector injector = setup();
+        GraphQLSchema schema = injector.getInstance(PostsModuleSchema.class).get();
+        assertSame(schema, injector.getInstance(PostsModuleSchema.class).get());
+        assertEquals("QueryPosts", schema.getQueryType().getName());
+        assertEquals("MutatePosts", schema.getMutationType().getName());
+
+        // The types are built once and shared with the MapBinder:
+        Map<String, GraphQLType> types =
+            injector.getInstance(Key.get(new TypeLiteral<Map<String, GraphQLType>>(){}));
+        assertSame(schema.getType("Post"), types.get("Post"));
+        assertSame(types.get("Author"), injector.getInstance(AuthorTypeProvider.class).get());
+
+        GraphQL graphQL = GraphQL.newGraphQL(schema).build();
+        ExecutionResult result = graphQL.execute(
+            "mutation{createPost(post:{title:\"NEW\" authorId:1}){title author{id}}}",
+            "authorized-user");
+        checkExecutionResult(result);
+        assertEquals("{createPost={title=NEW, author={id=1}}}", result.getData().toString());
+        result = graphQL.execute("{posts{title author{firstName}}}");
+        checkExecutionResult(result);
+    }
+
+    private static List<String> getPresentFieldNames(Author.Impl author) {
+        List<String> names = new ArrayList<>();
+        for ( int i=0; i < author.getFieldPresenceNames().size(); i++ ) {
+            if ( 0 != (author.getFieldPresence() & (1L << i)) ) {
+                names.add(author.getFieldPresenceNames().get(i));
+            }
+        }
+        return names;
+    }
+
+    void checkExecutionResult(ExecutionResult result) throws Exception {
         if ( null == result.getErrors() || result.getErrors().size() <= 0 ) return;
         ObjectMapper om = new ObjectMapper();
         om.enable(SerializationFeature.INDENT_OUTPUT);